@@ -1,6 +1,11 @@
 import board.Board;
 import game.Game;
 import game.Player;
+import server.GameServer;
+import uci.UciFrontEnd;
+
+import java.io.IOException;
+import java.util.Arrays;
 
 
 /**
@@ -11,11 +16,24 @@ import game.Player;
 public class Main {
 
     /**
-     * Launches the chess game.
+     * Launches the chess game, the headless game server when the first
+     * argument is {@code server} (remaining arguments go to
+     * {@link GameServer#main}), or the UCI front end when it is {@code uci}.
      *
-     * @param args command-line arguments (unused)
+     * @param args command-line arguments
+     * @throws IOException if the server cannot bind its address or
+     *         standard input fails
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equalsIgnoreCase("server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equalsIgnoreCase("uci")) {
+            UciFrontEnd.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         Board board = new Board();
         board.setupClassic();
 
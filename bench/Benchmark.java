@@ -0,0 +1,100 @@
+package bench;
+
+/**
+ * Minimal timing harness for the micro-benchmarks in this package.
+ * <p>
+ * Each benchmark runs a warm-up phase so the JIT compiles the hot path,
+ * then several timed rounds. Every operation returns a value that is
+ * folded into {@link #sink}, so the JIT cannot drop the work as dead code.
+ * Results are printed as mean and spread in nanoseconds per operation.
+ */
+public final class Benchmark {
+
+    /** One benchmarked operation; the result is consumed to defeat dead-code elimination. */
+    public interface Op {
+        /** @return any value derived from the work done */
+        long run() throws Exception;
+    }
+
+    /** Consumes benchmark results. */
+    public static volatile long sink;
+
+    /** Warm-up rounds before measuring. */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /** Timed rounds per benchmark. */
+    private static final int MEASURE_ROUNDS = 5;
+
+    /** Target length of one round in nanoseconds. */
+    private static final long ROUND_NANOS = 200_000_000L;
+
+    private Benchmark() { }
+
+    /**
+     * Runs and reports one benchmark.
+     *
+     * @param name label printed with the result
+     * @param op   operation to time
+     * @return mean nanoseconds per operation
+     */
+    public static double run(String name, Op op) {
+        try {
+            long batch = calibrate(op);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) round(op, batch);
+
+            double[] nanos = new double[MEASURE_ROUNDS];
+            double mean = 0;
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                nanos[i] = round(op, batch);
+                mean += nanos[i] / MEASURE_ROUNDS;
+            }
+            double var = 0;
+            for (double n : nanos) var += (n - mean) * (n - mean) / MEASURE_ROUNDS;
+
+            System.out.printf("%-44s %14.1f ns/op  +/- %.1f%n", name, mean, Math.sqrt(var));
+            return mean;
+        } catch (Exception e) {
+            System.out.printf("%-44s FAILED: %s%n", name, e);
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Picks how many operations make up one round of roughly {@link #ROUND_NANOS}.
+     */
+    private static long calibrate(Op op) throws Exception {
+        long batch = 1;
+        while (true) {
+            long start = System.nanoTime();
+            long acc = 0;
+            for (long i = 0; i < batch; i++) acc += op.run();
+            sink = acc;
+            long elapsed = System.nanoTime() - start;
+            if (elapsed > ROUND_NANOS / 10 || batch >= (1L << 40)) {
+                return Math.max(1, batch * (ROUND_NANOS / Math.max(1, elapsed)));
+            }
+            batch *= 2;
+        }
+    }
+
+    /** @return nanoseconds per operation over one batch */
+    private static double round(Op op, long batch) throws Exception {
+        long acc = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < batch; i++) acc += op.run();
+        long elapsed = System.nanoTime() - start;
+        sink = acc;
+        return (double) elapsed / batch;
+    }
+
+    /**
+     * @param filters benchmark name filters from the command line
+     * @param name    benchmark name
+     * @return true if no filter is given or the name contains one of them
+     */
+    public static boolean selected(String[] filters, String name) {
+        if (filters.length == 0) return true;
+        for (String f : filters) if (name.contains(f)) return true;
+        return false;
+    }
+}
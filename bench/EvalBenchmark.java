@@ -0,0 +1,120 @@
+package bench;
+
+import board.Board;
+import engine.Search;
+import engine.TranspositionTable;
+import nnue.Accumulator;
+import nnue.Network;
+
+/**
+ * Compares the board's incremental piece-square evaluation with the
+ * neural evaluation of {@link Accumulator}, on the middlegame fixture:
+ * the cost of one evaluation, of keeping the state up to date across a
+ * make/unmake pair, of a full accumulator refresh, and of a fixed-depth
+ * search with each evaluator.
+ * <p>
+ * The network runs on the Vector API kernels when the JVM is started
+ * with {@code --add-modules jdk.incubator.vector}, and on plain loops
+ * otherwise; the first line printed names the kernels in use. To time
+ * the scalar loops with the module present, add
+ * {@code -Dnnue.scalar=true}.
+ * <p>
+ * Usage: {@code java bench.EvalBenchmark [name-filter ...]}
+ */
+public final class EvalBenchmark {
+
+    /** Hidden size of the benchmark network. */
+    private static final int HIDDEN = 256;
+
+    /** Depth of the search benchmarks. */
+    private static final int SEARCH_DEPTH = 4;
+
+    /** Network updates and evaluations run before timing, so the kernels are compiled. */
+    private static final int KERNEL_WARMUP = 200_000;
+
+    private EvalBenchmark() { }
+
+    /**
+     * Runs every benchmark whose name contains one of the filters.
+     *
+     * @param args optional name filters, e.g. {@code nnue}
+     */
+    public static void main(String[] args) {
+        // timing does not depend on the weights, so a random network will do
+        Network net = Network.random(HIDDEN, 1);
+        Board board = Fixtures.replay(Fixtures.MIDDLEGAME);
+        int move = firstLegalMove(board);
+        Accumulator acc = new Accumulator(net);
+
+        // Interpreted Vector API code is thousands of times slower than
+        // compiled, which would leave the harness calibrating tiny batches
+        System.out.println("nnue kernels: " + Accumulator.getKernelName());
+        long warm = 0;
+        for (int i = 0; i < KERNEL_WARMUP; i++) {
+            acc.pieceMoved(i & 7, 0, 1 + (i & 31));
+            acc.pieceMoved(i & 7, 1 + (i & 31), 0);
+            warm += acc.evaluate(i & 1);
+        }
+        Benchmark.sink = warm;
+
+        if (Benchmark.selected(args, "eval/static")) {
+            Benchmark.run("eval/static", board::evaluate);
+        }
+        if (Benchmark.selected(args, "eval/nnue")) {
+            acc.refresh(board);
+            Benchmark.run("eval/nnue", () -> acc.evaluate(board.getSideToMove()));
+        }
+        if (Benchmark.selected(args, "refresh/nnue")) {
+            Benchmark.run("refresh/nnue", () -> {
+                acc.refresh(board);
+                return acc.evaluate(board.getSideToMove());
+            });
+        }
+        if (Benchmark.selected(args, "make-unmake/static")) {
+            Benchmark.run("make-unmake/static", () -> {
+                board.makeMove(move);
+                int score = board.evaluate();
+                board.unmakeMove();
+                return score;
+            });
+        }
+        if (Benchmark.selected(args, "make-unmake/nnue")) {
+            acc.attach(board);
+            Benchmark.run("make-unmake/nnue", () -> {
+                board.makeMove(move);
+                int score = acc.evaluate(board.getSideToMove());
+                board.unmakeMove();
+                return score;
+            });
+            acc.detach();
+        }
+        for (String eval : new String[] {"static", "nnue"}) {
+            String name = "search-depth-" + SEARCH_DEPTH + "/" + eval;
+            if (!Benchmark.selected(args, name)) continue;
+            TranspositionTable tt = new TranspositionTable(16);
+            Search search = new Search(tt);
+            if (eval.equals("nnue")) search.setNetwork(net);
+            long[] nodes = new long[1];
+            double nanos = Benchmark.run(name, () -> {
+                // every run starts cold, so both evaluators search the same tree size
+                tt.clear();
+                nodes[0] = search.search(board, SEARCH_DEPTH).nodes;
+                return nodes[0];
+            });
+            System.out.printf("%-44s %14.0f nodes/s%n", "", nodes[0] / (nanos / 1e9));
+        }
+    }
+
+    /** @return the first legal move in generation order */
+    private static int firstLegalMove(Board board) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int n = board.generateMoves(moves);
+        for (int i = 0; i < n; i++) {
+            if (board.tryMakeMove(moves[i])) {
+                board.unmakeMove();
+                return moves[i];
+            }
+        }
+        throw new IllegalStateException("Fixture has no legal move");
+    }
+}
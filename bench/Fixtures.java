@@ -0,0 +1,62 @@
+package bench;
+
+import board.Board;
+import board.Position;
+
+/**
+ * Benchmark positions reached by replaying move lists from the classic
+ * start, so every fixture is a position the rules core can actually reach.
+ */
+public final class Fixtures {
+
+    /** Ruy Lopez after 3...a6: full material, few contacts. */
+    public static final String OPENING =
+        "e2e4 e7e5 g1f3 b8c6 f1b5 a7a6";
+
+    /** Giuoco Piano with early exchanges: 26 pieces, open centre. */
+    public static final String MIDDLEGAME =
+        "e2e4 e7e5 g1f3 b8c6 f1c4 f8c5 c2c3 g8f6 d2d4 e5d4 c3d4 c5b4 "
+      + "c1d2 b4d2 b1d2 d7d5 e4d5 f6d5 d1b3 c6e7";
+
+    /** Middlegame line traded down to rook and pawns against knight and pawns. */
+    public static final String ENDGAME = MIDDLEGAME + " "
+      + "b3b7 h7h5 f3g5 c8b7 d2e4 e7g6 c4d5 b7d5 a1c1 d5c4 e4d6 d8d6 c1c4 g6f8 "
+      + "c4c2 d6d4 h2h3 d4f2 c2f2 h5h4 f2f6 a8d8 f6f7 h8h5 f7g7 h5g5 g7e7 e8e7 "
+      + "a2a3 g5g2 h1g1 g2f2 e1f2 f8e6 f2e3 d8d2 e3d2 c7c5 b2b3 e7f6 d2c2 f6e7 "
+      + "g1d1 e6g7 d1c1 e7f6 c2c3 f6f7 c3d2 g7h5 c1c5";
+
+    /** Fool's mate: white is checkmated. */
+    public static final String CHECKMATE =
+        "f2f3 e7e5 g2g4 d8h4";
+
+    /** White is in check but can block with g2g3 or a knight. */
+    public static final String CHECK =
+        "e2e4 f7f6 d2d4 g7g5 f2f3 e7e6 c1e3 f8b4";
+
+    private Fixtures() { }
+
+    /**
+     * Builds a board by replaying coordinate moves from the start position.
+     *
+     * @param moves space-separated moves such as {@code "e2e4 e7e5"}
+     * @return board after the moves
+     * @throws IllegalArgumentException if a move is rejected
+     */
+    public static Board replay(String moves) {
+        Board board = new Board();
+        board.setupClassic();
+        for (String m : moves.trim().split("\\s+")) {
+            if (!board.movePiece(square(m, 0), square(m, 2))) {
+                throw new IllegalArgumentException("Illegal fixture move " + m);
+            }
+        }
+        return board;
+    }
+
+    /** Parses a square such as {@code e2} at {@code offset}. */
+    private static Position square(String move, int offset) {
+        int col = move.charAt(offset) - 'a';
+        int row = 8 - (move.charAt(offset + 1) - '0');
+        return Position.of(row, col);
+    }
+}
@@ -0,0 +1,113 @@
+package bench;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import pieces.Piece;
+
+/**
+ * Micro-benchmarks for the rules core: {@link Board#movePiece},
+ * {@link Board#isCheck}, {@link Board#isCheckmate} and every
+ * {@link Piece#isValidMove} override, on opening, middlegame and endgame
+ * fixtures.
+ * <p>
+ * Usage: {@code java bench.RulesBenchmark [name-filter ...]}
+ */
+public final class RulesBenchmark {
+
+    private RulesBenchmark() { }
+
+    /**
+     * Runs every benchmark whose name contains one of the filters.
+     *
+     * @param args optional name filters, e.g. {@code isCheck}
+     */
+    public static void main(String[] args) {
+        String[][] phases = {
+            {"opening", Fixtures.OPENING},
+            {"middlegame", Fixtures.MIDDLEGAME},
+            {"endgame", Fixtures.ENDGAME},
+        };
+
+        for (String[] phase : phases) {
+            String name = "movePiece/" + phase[0];
+            if (Benchmark.selected(args, name)) benchMovePiece(name, Fixtures.replay(phase[1]));
+        }
+        for (String[] phase : phases) {
+            String name = "isCheck/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Board board = Fixtures.replay(phase[1]);
+                Benchmark.run(name, () -> (board.isCheck(Board.Color.WHITE) ? 1 : 0)
+                                        + (board.isCheck(Board.Color.BLACK) ? 2 : 0));
+            }
+        }
+
+        String[][] checks = {
+            {"not-in-check", Fixtures.MIDDLEGAME},
+            {"in-check", Fixtures.CHECK},
+            {"mated", Fixtures.CHECKMATE},
+        };
+        for (String[] check : checks) {
+            String name = "isCheckmate/" + check[0];
+            if (Benchmark.selected(args, name)) {
+                Board board = Fixtures.replay(check[1]);
+                Benchmark.run(name, () -> board.isCheckmate(Board.Color.WHITE) ? 1 : 0);
+            }
+        }
+
+        String[] types = {"Pawn", "Knight", "Bishop", "Rook", "Queen", "King"};
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            String name = "isValidMove/" + types[type];
+            if (Benchmark.selected(args, name)) benchIsValidMove(name, Fixtures.replay(Fixtures.MIDDLEGAME), type);
+        }
+    }
+
+    /**
+     * Times one legal move through {@code movePiece}, reverting it with
+     * {@code unmakeMove} so every iteration starts from the same position.
+     */
+    private static void benchMovePiece(String name, Board board) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int n = board.generateMoves(moves);
+        int move = Move.NONE;
+        for (int i = 0; i < n && move == Move.NONE; i++) {
+            if (board.tryMakeMove(moves[i])) {
+                board.unmakeMove();
+                move = moves[i];
+            }
+        }
+        Position from = Position.of(Move.from(move)), to = Position.of(Move.to(move));
+        Benchmark.run(name, () -> {
+            if (!board.movePiece(from, to)) return 0;
+            board.unmakeMove();
+            return 1;
+        });
+    }
+
+    /**
+     * Times {@code isValidMove} for the first white piece of a type, asked
+     * about all 64 destination squares.
+     */
+    private static void benchIsValidMove(String name, Board board, int type) {
+        Piece[][] grid = new Piece[8][8];
+        Piece piece = null;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = board.getPiece(Position.of(sq));
+            grid[sq >>> 3][sq & 7] = p;
+            if (piece == null && p != null && p.getSide() == 0 && p.getType() == type) piece = p;
+        }
+        if (piece == null) {
+            System.out.printf("%-44s skipped: no such piece%n", name);
+            return;
+        }
+        Piece subject = piece;
+        int from = subject.getPosition().toSquare();
+        Benchmark.run(name, () -> {
+            long valid = 0;
+            for (int sq = 0; sq < 64; sq++) {
+                if (sq != from && subject.isValidMove(sq >>> 3, sq & 7, grid)) valid++;
+            }
+            return valid;
+        });
+    }
+}
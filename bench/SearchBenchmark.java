@@ -0,0 +1,181 @@
+package bench;
+
+import board.Board;
+import engine.Search;
+import engine.TranspositionTable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Node-count benchmarks for {@link Search}. Node counts do not depend on
+ * the machine, so they show what a search change buys more reliably than
+ * timings.
+ * <p>
+ * {@code ordering}: nodes needed to complete each iterative-deepening
+ * depth with move ordering off (table move, then generation order) and on
+ * (MVV-LVA captures, killers, history), over a suite of positions.
+ * <p>
+ * {@code quiescence}: main-search and quiescence nodes at the last depth,
+ * and how much the score moves between consecutive depths, with static
+ * leaves, with a quiescence search over all captures, and with losing
+ * captures pruned by static exchange evaluation.
+ * <p>
+ * {@code ebf}: nodes at the last depth and effective branching factor
+ * with every selective technique off, each one alone, and all on. The
+ * branching factor is the geometric mean over the suite of
+ * {@code sqrt(nodes(d) / nodes(d - 2))}, which evens out the odd-even
+ * effect of alpha-beta.
+ * <p>
+ * Usage: {@code java bench.SearchBenchmark [depth] [name-filter ...]}
+ */
+public final class SearchBenchmark {
+
+    /** Test positions in FEN: opening, tactical middlegames and an endgame. */
+    static final String[][] SUITE = {
+        {"start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"},
+        {"kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"},
+        {"italian", "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQK2R b KQkq - 0 5"},
+        {"tactics", "r1b1kb1r/pp3ppp/2n1pn2/q1pp4/3P4/2PBPN2/PP1N1PPP/R2QK2R w KQkq - 0 8"},
+        {"endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"},
+    };
+
+    /** Table size for every run, in MB; each run starts from an empty table. */
+    private static final int TT_MB = 16;
+
+    private SearchBenchmark() { }
+
+    /**
+     * Runs every benchmark whose name contains one of the filters.
+     *
+     * @param args optional depth, then optional name filters
+     */
+    public static void main(String[] args) {
+        int depth = 6;
+        if (args.length > 0 && args[0].matches("\\d+")) {
+            depth = Integer.parseInt(args[0]);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (Benchmark.selected(args, "ordering")) ordering(depth);
+        if (Benchmark.selected(args, "quiescence")) quiescence(depth);
+        if (Benchmark.selected(args, "ebf")) branchingFactor(depth);
+    }
+
+    /** Prints nodes per depth with move ordering off and on, and the reduction. */
+    private static void ordering(int depth) {
+        System.out.println("ordering: nodes to complete each depth, off / on");
+        long totalOff = 0, totalOn = 0;
+        for (String[] position : SUITE) {
+            long[] off = run(position[1], depth, s -> s.setMoveOrdering(false)).nodes;
+            long[] on = run(position[1], depth, s -> s.setMoveOrdering(true)).nodes;
+            for (int d = 1; d <= depth; d++) {
+                System.out.printf("  %-9s depth %2d %,14d %,14d %6.1f%%%n",
+                        position[0], d, off[d], on[d], 100.0 * on[d] / Math.max(1, off[d]));
+            }
+            totalOff += off[depth];
+            totalOn += on[depth];
+        }
+        System.out.printf("  total at depth %d: %,d / %,d nodes (%.1f%%)%n",
+                depth, totalOff, totalOn, 100.0 * totalOn / Math.max(1, totalOff));
+    }
+
+    /** Prints quiescence cost and score stability with static leaves, full and SEE-pruned quiescence. */
+    private static void quiescence(int depth) {
+        String[] names = {"static leaves", "all captures", "SEE-pruned"};
+        List<Consumer<Search>> settings = Arrays.asList(
+                s -> s.setQuiescence(false),
+                s -> s.setSeePruning(false),
+                s -> s.setSeePruning(true));
+        System.out.println("quiescence: depth " + depth + " main nodes, q-nodes, q-nodes per main node,"
+                + " mean score change between depths (cp)");
+        for (int k = 0; k < names.length; k++) {
+            long main = 0, quiet = 0, swing = 0, steps = 0;
+            for (String[] position : SUITE) {
+                Run r = run(position[1], depth, settings.get(k));
+                int last = r.completed;
+                main += r.nodes[last] - r.qnodes[last];
+                quiet += r.qnodes[last];
+                for (int d = 2; d <= last; d++, steps++) swing += Math.abs(r.scores[d] - r.scores[d - 1]);
+            }
+            System.out.printf("  %-14s %,12d %,12d %8.2f %8.1f%n",
+                    names[k], main, quiet, (double) quiet / Math.max(1, main), (double) swing / Math.max(1, steps));
+        }
+    }
+
+    /** Prints nodes and effective branching factor for each selective technique alone and together. */
+    private static void branchingFactor(int depth) {
+        String[] names = {"none", "null move", "reductions", "extensions", "futility", "all"};
+        Consumer<Search> none = s -> {
+            s.setNullMovePruning(false);
+            s.setLateMoveReductions(false);
+            s.setCheckExtensions(false);
+            s.setFutilityPruning(false);
+        };
+        List<Consumer<Search>> settings = Arrays.asList(
+                none,
+                none.andThen(s -> s.setNullMovePruning(true)),
+                none.andThen(s -> s.setLateMoveReductions(true)),
+                none.andThen(s -> s.setCheckExtensions(true)),
+                none.andThen(s -> s.setFutilityPruning(true)),
+                s -> { });
+        System.out.println("ebf: depth " + depth + " nodes, effective branching factor");
+        for (int k = 0; k < names.length; k++) {
+            long total = 0;
+            double logSum = 0;
+            int positions = 0;
+            for (String[] position : SUITE) {
+                Run r = run(position[1], depth, settings.get(k));
+                int last = r.completed;
+                total += r.nodes[last];
+                if (last < 3) continue;   // mate found too early to measure
+                logSum += Math.log((double) r.nodes[last] / Math.max(1, r.nodes[last - 2])) / 2;
+                positions++;
+            }
+            System.out.printf("  %-11s %,14d %6.2f%n", names[k], total, Math.exp(logSum / Math.max(1, positions)));
+        }
+    }
+
+    /** Per-depth figures of one iterative-deepening search. */
+    static final class Run {
+        /** Cumulative nodes by depth. */
+        final long[] nodes;
+        /** Cumulative quiescence nodes by depth. */
+        final long[] qnodes;
+        /** Score by depth. */
+        final int[] scores;
+        /** Last completed depth (lower than asked when a mate ends the search). */
+        int completed;
+
+        Run(int depth) {
+            nodes = new long[depth + 1];
+            qnodes = new long[depth + 1];
+            scores = new int[depth + 1];
+        }
+    }
+
+    /**
+     * Searches a position with iterative deepening and records the node
+     * counts and score at the end of each iteration.
+     *
+     * @param fen       position
+     * @param depth     last depth
+     * @param configure settings applied to the fresh search
+     * @return figures indexed by depth (entry 0 unused)
+     */
+    static Run run(String fen, int depth, Consumer<Search> configure) {
+        Board board = new Board();
+        board.setFen(fen);
+        Search search = new Search(new TranspositionTable(TT_MB));
+        configure.accept(search);
+        Run run = new Run(depth);
+        search.setIterationListener(r -> {
+            run.nodes[r.depth] = r.nodes;
+            run.qnodes[r.depth] = search.getQuiescenceNodes();
+            run.scores[r.depth] = r.score;
+            run.completed = r.depth;
+        });
+        search.search(board, depth);
+        return run;
+    }
+}
@@ -0,0 +1,106 @@
+package board;
+
+/**
+ * Precomputed attack sets for the bitboard move generator.
+ * <p>
+ * Square indices follow {@link Position#toSquare()}: bit {@code row * 8 + col},
+ * with row 0 being rank 8. Sliding attacks walk precomputed rays and stop
+ * at the first occupied square in each direction.
+ */
+public final class Attacks {
+
+    /** Ray directions as (row, col) steps; the first four increase the square index. */
+    private static final int[][] DIRECTIONS = {
+        {1, 0}, {0, 1}, {1, 1}, {1, -1},   // S, E, SE, SW
+        {-1, 0}, {0, -1}, {-1, -1}, {-1, 1} // N, W, NW, NE
+    };
+
+    /** Empty-board rays indexed by direction then square. */
+    private static final long[][] RAYS = new long[8][64];
+
+    /** Knight targets per square. */
+    private static final long[] KNIGHT = new long[64];
+
+    /** King targets per square. */
+    private static final long[] KING = new long[64];
+
+    /** Squares attacked by a pawn, indexed by side then square. */
+    private static final long[][] PAWN = new long[2][64];
+
+    static {
+        int[][] knightSteps = {{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}};
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >>> 3, c = sq & 7;
+            for (int[] s : knightSteps) KNIGHT[sq] |= bit(r + s[0], c + s[1]);
+            for (int d = 0; d < 8; d++) {
+                int[] dir = DIRECTIONS[d];
+                KING[sq] |= bit(r + dir[0], c + dir[1]);
+                for (int rr = r + dir[0], cc = c + dir[1]; onBoard(rr, cc); rr += dir[0], cc += dir[1]) {
+                    RAYS[d][sq] |= 1L << (rr * 8 + cc);
+                }
+            }
+            PAWN[0][sq] = bit(r - 1, c - 1) | bit(r - 1, c + 1); // white moves up
+            PAWN[1][sq] = bit(r + 1, c - 1) | bit(r + 1, c + 1); // black moves down
+        }
+    }
+
+    private Attacks() { }
+
+    private static boolean onBoard(int r, int c) {
+        return r >= 0 && r < 8 && c >= 0 && c < 8;
+    }
+
+    private static long bit(int r, int c) {
+        return onBoard(r, c) ? 1L << (r * 8 + c) : 0L;
+    }
+
+    /** @return knight targets from {@code sq} */
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    /** @return king targets from {@code sq} */
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    /**
+     * @param side 0 = white, 1 = black
+     * @param sq   pawn square
+     * @return squares a pawn of that side attacks diagonally
+     */
+    public static long pawn(int side, int sq) {
+        return PAWN[side][sq];
+    }
+
+    /** @return bishop targets from {@code sq} given the occupied squares */
+    public static long bishop(int sq, long occupied) {
+        return ray(2, sq, occupied) | ray(3, sq, occupied)
+             | ray(6, sq, occupied) | ray(7, sq, occupied);
+    }
+
+    /** @return rook targets from {@code sq} given the occupied squares */
+    public static long rook(int sq, long occupied) {
+        return ray(0, sq, occupied) | ray(1, sq, occupied)
+             | ray(4, sq, occupied) | ray(5, sq, occupied);
+    }
+
+    /** @return queen targets from {@code sq} given the occupied squares */
+    public static long queen(int sq, long occupied) {
+        return bishop(sq, occupied) | rook(sq, occupied);
+    }
+
+    /**
+     * Squares reached along one ray, including the first blocker.
+     */
+    private static long ray(int dir, int sq, long occupied) {
+        long attacks = RAYS[dir][sq];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int first = dir < 4 ? Long.numberOfTrailingZeros(blockers)
+                                : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[dir][first];
+        }
+        return attacks;
+    }
+}
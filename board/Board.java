@@ -3,50 +3,838 @@ package board;
 import pieces.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Chessboard with an 8x8 grid of pieces plus basic move/capture logic.
+ * Chessboard backed by bitboards plus basic move/capture logic.
+ * <p>
+ * The authoritative state is one {@code long} per side and piece type,
+ * where bit {@code row * 8 + col} is set when such a piece stands on that
+ * square, plus per-side and combined occupancy masks. An 8x8 grid of
+ * {@link Piece} objects is kept in sync as a view for {@link #getPiece}
+ * and the pieces' own {@code isValidMove} checks.
  */
 public class Board {
 
-    /** 8x8 matrix holding the pieces (null if empty). */
+    /** Upper bound on pseudo-legal moves in any position; size move buffers with it. */
+    public static final int MAX_MOVES = 256;
+
+    /** Castling-rights bit: white may castle king-side. */
+    public static final int WHITE_KINGSIDE = 1;
+
+    /** Castling-rights bit: white may castle queen-side. */
+    public static final int WHITE_QUEENSIDE = 2;
+
+    /** Castling-rights bit: black may castle king-side. */
+    public static final int BLACK_KINGSIDE = 4;
+
+    /** Castling-rights bit: black may castle queen-side. */
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /** Piece letters by type index, as used in FEN (white upper case). */
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    /** Piece values for {@link #see}, indexed by type; the king outweighs any exchange. */
+    private static final int[] SEE_VALUE = {100, 320, 330, 500, 900, 20_000};
+
+    /** Castling rights kept after a move touches a square (king and rook homes clear bits). */
+    private static final int[] CASTLE_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLE_MASK, 15);
+        CASTLE_MASK[60] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15;
+        CASTLE_MASK[63] = ~WHITE_KINGSIDE & 15;
+        CASTLE_MASK[56] = ~WHITE_QUEENSIDE & 15;
+        CASTLE_MASK[4] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15;
+        CASTLE_MASK[7] = ~BLACK_KINGSIDE & 15;
+        CASTLE_MASK[0] = ~BLACK_QUEENSIDE & 15;
+    }
+
+    /** Piece bitboards indexed by {@code side * 6 + type}. */
+    private final long[] bitboards = new long[12];
+
+    /** Occupancy per side (0 = white, 1 = black). */
+    private final long[] occupancy = new long[2];
+
+    /** Union of both sides' occupancy. */
+    private long occupied;
+
+    /** Squares of each side's pieces; entries {@code [side][0 .. pieceCount[side])} are live. */
+    private final int[][] pieceSquares = new int[2][16];
+
+    /** Number of pieces per side. */
+    private final int[] pieceCount = new int[2];
+
+    /** Position of each occupied square within its side's piece list. */
+    private final int[] listIndex = new int[64];
+
+    /** King square per side, or -1 when that side has no king. */
+    private final int[] kingSquare = {-1, -1};
+
+    /** 8x8 object view of the bitboards (null if empty). */
     private final Piece[][] grid = new Piece[8][8];
 
     /** Captured pieces in play order. */
     private final List<Piece> captured = new ArrayList<>();
 
+    /** Move buffer reused by isCheckmate and movePiece. */
+    private final int[] mateMoves = new int[MAX_MOVES];
+
+    /** Gain per capture in the exchange sequence of {@link #see}. */
+    private final int[] seeGain = new int[33];
+
+    /** Side to move (0 = white, 1 = black); flipped by every makeMove. */
+    private int sideToMove;
+
+    /** Castling rights as {@link #WHITE_KINGSIDE} .. {@link #BLACK_QUEENSIDE} bits. */
+    private int castlingRights;
+
+    /** Square a pawn may capture en passant onto, or -1. */
+    private int epSquare = -1;
+
+    /** Plies since the last capture or pawn move. */
+    private int halfmoveClock;
+
+    /** Move number, starting at 1 and incremented after black moves. */
+    private int fullmoveNumber = 1;
+
+    /** Undo stack: moves made, in order. */
+    private int[] undoMoves = new int[256];
+
+    /** Undo stack: piece removed by each move (null if none). */
+    private Piece[] undoCaptured = new Piece[256];
+
+    /** Undo stack: Zobrist key before each move, for repetition checks. */
+    private long[] undoHash = new long[256];
+
+    /** Undo stack: castling rights, en-passant square + 1 and halfmove clock before each move. */
+    private int[] undoState = new int[256];
+
+    /** Undo stack: pawn replaced by each promotion (null otherwise). */
+    private Piece[] undoPromoted = new Piece[256];
+
+    /** Number of records on the undo stack. */
+    private int ply;
+
+    /** Zobrist key of the current position, updated on every change. */
+    private long hash;
+
+    /** Midgame material plus piece-square sum (white positive), see {@link Psqt}. */
+    private int mgScore;
+
+    /** Endgame material plus piece-square sum (white positive). */
+    private int egScore;
+
+    /** Game phase from the pieces on the board; {@link Psqt#MAX_PHASE} at the start. */
+    private int phase;
+
+    /** Told about every piece change, or null. */
+    private FeatureListener featureListener;
+
     /** Color enum used by isCheck / isCheckmate. */
     public enum Color { WHITE, BLACK }
 
+    /** Creates an empty board; call {@link #setupClassic()} to populate it. */
+    public Board() {
+    }
+
+    /**
+     * Creates an independent copy of another board's position, side to
+     * move, castling rights, en-passant square and move counters, with
+     * fresh piece objects so both boards can be searched from different
+     * threads. The undo stack is not copied.
+     *
+     * @param other board to copy
+     */
+    public Board(Board other) {
+        for (long bb = other.occupied; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            Piece p = other.grid[sq >>> 3][sq & 7];
+            put(newPiece(p.getType(), p.getColor(), Position.of(sq)));
+        }
+        setSideToMove(other.sideToMove);
+        setCastlingRights(other.castlingRights);
+        setEnPassantSquare(other.epSquare);
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * Creates a piece object for a type index.
+     *
+     * @param type  {@link Piece#PAWN} .. {@link Piece#KING}
+     * @param color "white" or "black"
+     * @param pos   square the piece stands on
+     * @return new piece
+     */
+    static Piece newPiece(int type, String color, Position pos) {
+        switch (type) {
+            case Piece.PAWN:   return new Pawn(color, pos);
+            case Piece.KNIGHT: return new Knight(color, pos);
+            case Piece.BISHOP: return new Bishop(color, pos);
+            case Piece.ROOK:   return new Rook(color, pos);
+            case Piece.QUEEN:  return new Queen(color, pos);
+            default:           return new King(color, pos);
+        }
+    }
+
     /** Initializes the classic starting position. */
     public void setupClassic() {
-        // clear
+        clear();
+
+        // black
+        put(new Rook  ("black", Position.of(0,0)));
+        put(new Knight("black", Position.of(0,1)));
+        put(new Bishop("black", Position.of(0,2)));
+        put(new Queen ("black", Position.of(0,3)));
+        put(new King  ("black", Position.of(0,4)));
+        put(new Bishop("black", Position.of(0,5)));
+        put(new Knight("black", Position.of(0,6)));
+        put(new Rook  ("black", Position.of(0,7)));
+        for (int c = 0; c < 8; c++) put(new Pawn("black", Position.of(1,c)));
+
+        // white
+        for (int c = 0; c < 8; c++) put(new Pawn("white", Position.of(6,c)));
+        put(new Rook  ("white", Position.of(7,0)));
+        put(new Knight("white", Position.of(7,1)));
+        put(new Bishop("white", Position.of(7,2)));
+        put(new Queen ("white", Position.of(7,3)));
+        put(new King  ("white", Position.of(7,4)));
+        put(new Bishop("white", Position.of(7,5)));
+        put(new Knight("white", Position.of(7,6)));
+        put(new Rook  ("white", Position.of(7,7)));
+
+        setCastlingRights(WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE);
+    }
+
+    /**
+     * Replaces the position with one read from Forsyth-Edwards Notation,
+     * e.g. {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+     * <p>
+     * The text is scanned once, character by character, straight into the
+     * bitboards; no regex, {@code split} or substrings are involved, so
+     * bulk loaders can feed it lines from a reused buffer. The halfmove
+     * clock and move number may be omitted (as in EPD) and default to
+     * 0 and 1. An en-passant square no pawn can capture onto is dropped,
+     * so the hash matches the same position reached by play. The undo
+     * stack and captured list are cleared.
+     *
+     * @param fen position text
+     * @throws IllegalArgumentException if the text is not valid FEN or
+     *         describes more than 16 pieces or more than one king per side;
+     *         the board is left empty
+     */
+    public void setFen(CharSequence fen) {
+        clear();
+        int len = fen.length(), i = 0;
+
+        // piece placement, rank 8 first
+        int row = 0, col = 0;
+        for (; i < len; i++) {
+            char ch = fen.charAt(i);
+            if (ch == ' ') break;
+            if (ch == '/') {
+                if (col != 8 || ++row > 7) throw badFen("Misplaced '/'", fen, i);
+                col = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                col += ch - '0';
+                if (col > 8) throw badFen("Rank too long", fen, i);
+            } else {
+                int type = PIECE_LETTERS.indexOf(Character.toUpperCase(ch));
+                if (type < 0) throw badFen("Unknown piece '" + ch + "'", fen, i);
+                if (col > 7) throw badFen("Rank too long", fen, i);
+                int side = Character.isUpperCase(ch) ? 0 : 1;
+                if (pieceCount[side] == 16) throw badFen("More than 16 pieces for one side", fen, i);
+                if (type == Piece.KING && kingSquare[side] >= 0) throw badFen("More than one king for one side", fen, i);
+                if (type == Piece.PAWN && (row == 0 || row == 7)) throw badFen("Pawn on the first or last rank", fen, i);
+                put(newPiece(type, side == 0 ? "white" : "black", Position.of(row, col++)));
+            }
+        }
+        if (row != 7 || col != 8) throw badFen("Board must have 8 ranks of 8 squares", fen, i);
+
+        // side to move
+        i = skipSpaces(fen, i);
+        if (i >= len) throw badFen("Missing side to move", fen, i);
+        char side = fen.charAt(i++);
+        if (side == 'b') setSideToMove(1);
+        else if (side != 'w') throw badFen("Side to move must be 'w' or 'b'", fen, i - 1);
+
+        // castling rights
+        i = skipSpaces(fen, i);
+        if (i >= len) throw badFen("Missing castling rights", fen, i);
+        int rights = 0;
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < len && fen.charAt(i) != ' '; i++) {
+                int bit = "KQkq".indexOf(fen.charAt(i));
+                if (bit < 0) throw badFen("Bad castling right '" + fen.charAt(i) + "'", fen, i);
+                rights |= 1 << bit;
+            }
+        }
+        setCastlingRights(rights);
+
+        // en-passant square
+        i = skipSpaces(fen, i);
+        if (i >= len) throw badFen("Missing en-passant square", fen, i);
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            char file = i + 1 < len ? fen.charAt(i) : 0;
+            char rank = i + 1 < len ? fen.charAt(i + 1) : 0;
+            if (file < 'a' || file > 'h' || rank != (sideToMove == 0 ? '6' : '3')) {
+                throw badFen("Bad en-passant square", fen, i);
+            }
+            // keep it only if an enemy pawn can use it, as makeMove does, so hashes agree
+            int sq = ('8' - rank) * 8 + (file - 'a');
+            if ((Attacks.pawn(sideToMove ^ 1, sq) & bitboards[sideToMove * 6 + Piece.PAWN]) != 0) {
+                setEnPassantSquare(sq);
+            }
+            i += 2;
+        }
+
+        // optional move counters
+        i = skipSpaces(fen, i);
+        if (i < len) {
+            halfmoveClock = parseCounter(fen, i);
+            while (i < len && fen.charAt(i) != ' ') i++;
+            i = skipSpaces(fen, i);
+            if (i < len) {
+                fullmoveNumber = parseCounter(fen, i);
+                while (i < len && fen.charAt(i) != ' ') i++;
+                if (skipSpaces(fen, i) < len) throw badFen("Unexpected trailing text", fen, i);
+            }
+        }
+    }
+
+    /**
+     * Formats the position as Forsyth-Edwards Notation, the inverse of
+     * {@link #setFen}. The en-passant field names a square only when a
+     * pawn could actually capture there.
+     *
+     * @return FEN text
+     */
+    public String getFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                Piece p = grid[r][c];
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append((char) ('0' + empty));
+                empty = 0;
+                char letter = PIECE_LETTERS.charAt(p.getType());
+                sb.append(p.getSide() == 0 ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (r < 7) sb.append('/');
+        }
+        sb.append(sideToMove == 0 ? " w " : " b ");
+        if (castlingRights == 0) sb.append('-');
+        for (int bit = 0; bit < 4; bit++) {
+            if ((castlingRights & (1 << bit)) != 0) sb.append("KQkq".charAt(bit));
+        }
+        sb.append(' ').append(epSquare < 0 ? "-" : Move.square(epSquare));
+        return sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /** @return index of the first non-space character at or after {@code i} */
+    private static int skipSpaces(CharSequence s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') i++;
+        return i;
+    }
+
+    /** Parses a non-negative decimal counter ending at a space or the end of the text. */
+    private int parseCounter(CharSequence s, int i) {
+        int value = 0, start = i;
+        for (; i < s.length() && s.charAt(i) != ' '; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9' || value > 100_000_000) throw badFen("Bad move counter", s, start);
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    /** Empties the board and builds the exception for a malformed FEN. */
+    private IllegalArgumentException badFen(String reason, CharSequence fen, int index) {
+        clear();
+        return new IllegalArgumentException(reason + " at index " + index + " in FEN: " + fen);
+    }
+
+    /** Removes every piece and resets the bitboards. */
+    private void clear() {
         for (int r = 0; r < 8; r++)
             for (int c = 0; c < 8; c++)
                 grid[r][c] = null;
+        for (int i = 0; i < bitboards.length; i++) bitboards[i] = 0L;
+        occupancy[0] = occupancy[1] = 0L;
+        occupied = 0L;
+        pieceCount[0] = pieceCount[1] = 0;
+        kingSquare[0] = kingSquare[1] = -1;
+        captured.clear();
+        sideToMove = 0;
+        castlingRights = 0;
+        epSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        hash = 0L;
+        mgScore = egScore = phase = 0;
+        while (ply > 0) {
+            undoCaptured[--ply] = null;
+            undoPromoted[ply] = null;
+        }
+    }
 
-        // black
-        grid[0][0] = new Rook  ("black", new Position(0,0));
-        grid[0][1] = new Knight("black", new Position(0,1));
-        grid[0][2] = new Bishop("black", new Position(0,2));
-        grid[0][3] = new Queen ("black", new Position(0,3));
-        grid[0][4] = new King  ("black", new Position(0,4));
-        grid[0][5] = new Bishop("black", new Position(0,5));
-        grid[0][6] = new Knight("black", new Position(0,6));
-        grid[0][7] = new Rook  ("black", new Position(0,7));
-        for (int c = 0; c < 8; c++) grid[1][c] = new Pawn("black", new Position(1,c));
+    /**
+     * Places a piece on the square given by its own position.
+     *
+     * @param p piece to place (the target square must be empty)
+     */
+    private void put(Piece p) {
+        int sq = p.getPosition().toSquare();
+        long bit = 1L << sq;
+        int side = p.getSide();
+        bitboards[side * 6 + p.getType()] |= bit;
+        occupancy[side] |= bit;
+        occupied |= bit;
+        hash ^= Zobrist.PIECES[side * 6 + p.getType()][sq];
+        mgScore += Psqt.MG[side * 6 + p.getType()][sq];
+        egScore += Psqt.EG[side * 6 + p.getType()][sq];
+        phase += Psqt.PHASE[p.getType()];
+        if (featureListener != null) featureListener.pieceAdded(side * 6 + p.getType(), sq);
+        grid[sq >>> 3][sq & 7] = p;
+        listIndex[sq] = pieceCount[side];
+        pieceSquares[side][pieceCount[side]++] = sq;
+        if (p.getType() == Piece.KING) kingSquare[side] = sq;
+    }
 
-        // white
-        for (int c = 0; c < 8; c++) grid[6][c] = new Pawn("white", new Position(6,c));
-        grid[7][0] = new Rook  ("white", new Position(7,0));
-        grid[7][1] = new Knight("white", new Position(7,1));
-        grid[7][2] = new Bishop("white", new Position(7,2));
-        grid[7][3] = new Queen ("white", new Position(7,3));
-        grid[7][4] = new King  ("white", new Position(7,4));
-        grid[7][5] = new Bishop("white", new Position(7,5));
-        grid[7][6] = new Knight("white", new Position(7,6));
-        grid[7][7] = new Rook  ("white", new Position(7,7));
+    /**
+     * Removes whatever piece stands on a square.
+     *
+     * @param sq square index
+     * @return removed piece, or null if the square was empty
+     */
+    private Piece remove(int sq) {
+        Piece p = grid[sq >>> 3][sq & 7];
+        if (p == null) return null;
+        long bit = 1L << sq;
+        int side = p.getSide();
+        bitboards[side * 6 + p.getType()] &= ~bit;
+        occupancy[side] &= ~bit;
+        occupied &= ~bit;
+        hash ^= Zobrist.PIECES[side * 6 + p.getType()][sq];
+        mgScore -= Psqt.MG[side * 6 + p.getType()][sq];
+        egScore -= Psqt.EG[side * 6 + p.getType()][sq];
+        phase -= Psqt.PHASE[p.getType()];
+        if (featureListener != null) featureListener.pieceRemoved(side * 6 + p.getType(), sq);
+        grid[sq >>> 3][sq & 7] = null;
+
+        // swap the last list entry into the freed slot
+        int last = pieceSquares[side][--pieceCount[side]];
+        pieceSquares[side][listIndex[sq]] = last;
+        listIndex[last] = listIndex[sq];
+        if (kingSquare[side] == sq) kingSquare[side] = -1;
+        return p;
+    }
+
+    /**
+     * Moves the piece on {@code from} to the empty square {@code to},
+     * updating the bitboards, the grid view and the piece's position.
+     */
+    private void relocate(int from, int to) {
+        Piece p = grid[from >>> 3][from & 7];
+        int side = p.getSide();
+        long delta = (1L << from) | (1L << to);
+        bitboards[side * 6 + p.getType()] ^= delta;
+        occupancy[side] ^= delta;
+        occupied ^= delta;
+        long[] keys = Zobrist.PIECES[side * 6 + p.getType()];
+        hash ^= keys[from] ^ keys[to];
+        int[] mg = Psqt.MG[side * 6 + p.getType()], eg = Psqt.EG[side * 6 + p.getType()];
+        mgScore += mg[to] - mg[from];
+        egScore += eg[to] - eg[from];
+        if (featureListener != null) featureListener.pieceMoved(side * 6 + p.getType(), from, to);
+        grid[from >>> 3][from & 7] = null;
+        grid[to >>> 3][to & 7] = p;
+        p.move(Position.of(to));
+        listIndex[to] = listIndex[from];
+        pieceSquares[side][listIndex[to]] = to;
+        if (kingSquare[side] == from) kingSquare[side] = to;
+    }
+
+    /**
+     * Returns the bitboard of one side's pieces of one type.
+     *
+     * @param side 0 = white, 1 = black
+     * @param type piece type index ({@link Piece#PAWN} .. {@link Piece#KING})
+     * @return bitboard with bit {@code row * 8 + col} set per piece
+     */
+    public long getBitboard(int side, int type) {
+        return bitboards[side * 6 + type];
+    }
+
+    /**
+     * @param side 0 = white, 1 = black
+     * @return bitboard of all squares occupied by that side
+     */
+    public long getOccupancy(int side) {
+        return occupancy[side];
+    }
+
+    /** @return bitboard of all occupied squares */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @param side 0 = white, 1 = black
+     * @return that side's king square, or -1 if it has no king
+     */
+    public int getKingSquare(int side) {
+        return kingSquare[side];
+    }
+
+    /**
+     * Tells whether a side has pieces other than its king and pawns; when
+     * it does not, passing is often its best option (zugzwang), so a
+     * null-move search would be unsound.
+     *
+     * @param side 0 = white, 1 = black
+     * @return true if that side has a knight, bishop, rook or queen
+     */
+    public boolean hasNonPawnMaterial(int side) {
+        return (occupancy[side] & ~(bitboards[side * 6 + Piece.PAWN] | bitboards[side * 6 + Piece.KING])) != 0;
+    }
+
+    /**
+     * @param side 0 = white, 1 = black
+     * @return number of pieces that side has on the board
+     */
+    public int getPieceCount(int side) {
+        return pieceCount[side];
+    }
+
+    /**
+     * Reads one side's piece list. Order is arbitrary and changes as
+     * pieces are captured.
+     *
+     * @param side  0 = white, 1 = black
+     * @param index 0 .. {@code getPieceCount(side) - 1}
+     * @return square of that piece
+     */
+    public int getPieceSquare(int side, int index) {
+        return pieceSquares[side][index];
+    }
+
+    /** @return side to move (0 = white, 1 = black) */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Sets the side to move, keeping the hash in step.
+     *
+     * @param side 0 = white, 1 = black
+     */
+    private void setSideToMove(int side) {
+        if (sideToMove != side) {
+            sideToMove = side;
+            hash ^= Zobrist.SIDE;
+        }
+    }
+
+    /** @return castling rights as {@link #WHITE_KINGSIDE} .. {@link #BLACK_QUEENSIDE} bits */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /** @return square a pawn may capture en passant onto, or -1 if none */
+    public int getEnPassantSquare() {
+        return epSquare;
+    }
+
+    /** @return plies since the last capture or pawn move */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /** @return move number, starting at 1 and incremented after black moves */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /** Sets the castling rights, keeping the hash in step. */
+    private void setCastlingRights(int rights) {
+        hash ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+        castlingRights = rights;
+    }
+
+    /** Sets the en-passant square (-1 for none), keeping the hash in step. */
+    private void setEnPassantSquare(int sq) {
+        if (epSquare >= 0) hash ^= Zobrist.EN_PASSANT[epSquare & 7];
+        if (sq >= 0) hash ^= Zobrist.EN_PASSANT[sq & 7];
+        epSquare = sq;
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the position (pieces, side to
+     * move, castling rights and en-passant square). Equal positions have equal keys; it is maintained
+     * incrementally, so reading it is O(1).
+     *
+     * @return position key
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Registers a listener for every later piece change, replacing any
+     * previous one. The listener is not told about the pieces already on
+     * the board; it should read them itself when attached.
+     *
+     * @param listener listener, or null to remove it
+     */
+    public void setFeatureListener(FeatureListener listener) {
+        this.featureListener = listener;
+    }
+
+    /**
+     * Static evaluation: material plus piece-square values, blended from
+     * the midgame to the endgame tables by the material left. The sums
+     * are kept up to date by every move and undo, so this costs a few
+     * arithmetic operations.
+     *
+     * @return score in centipawns from the side to move's point of view
+     */
+    public int evaluate() {
+        int mgPhase = Math.min(phase, Psqt.MAX_PHASE);
+        int score = (mgScore * mgPhase + egScore * (Psqt.MAX_PHASE - mgPhase)) / Psqt.MAX_PHASE;
+        return sideToMove == 0 ? score : -score;
+    }
+
+    /**
+     * Checks whether the current position already occurred earlier on the
+     * undo stack with the same side to move. Only plies since the last
+     * capture or pawn move are scanned, as nothing older can recur.
+     *
+     * @return true if the position is a repetition
+     */
+    public boolean isRepetition() {
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (undoHash[i] == hash) return true;
+        }
+        return false;
+    }
+
+    /** @return number of moves on the undo stack */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Plays a packed move without any legality check and pushes an undo
+     * record. Castling also moves the rook, en passant removes the pawn
+     * beside the destination and promotions swap the pawn for a new piece.
+     * The record lives in preallocated arrays, so apart from a promoted
+     * piece, making and unmaking moves does not allocate.
+     *
+     * @param move packed move, normally taken from {@link #generateMoves}
+     */
+    public void makeMove(int move) {
+        if (ply == undoMoves.length) growUndoStack();
+        int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+        int mover = sideToMove;
+        boolean pawnMove = (bitboards[mover * 6 + Piece.PAWN] & (1L << from)) != 0;
+        undoMoves[ply] = move;
+        undoHash[ply] = hash;
+        undoState[ply] = castlingRights | (epSquare + 1) << 4 | halfmoveClock << 11;
+        Piece target = remove(flags == Move.EN_PASSANT ? to + (mover == 0 ? 8 : -8) : to);
+        undoCaptured[ply] = target;
+
+        if (Move.isPromotion(move)) {
+            Piece pawn = remove(from);
+            undoPromoted[ply] = pawn;
+            put(newPiece(Move.promotionType(move), pawn.getColor(), Position.of(to)));
+        } else {
+            relocate(from, to);
+            if (flags == Move.KING_CASTLE) relocate(to + 1, to - 1);
+            else if (flags == Move.QUEEN_CASTLE) relocate(to - 2, to + 1);
+        }
+        ply++;
+
+        // only record an en-passant square an enemy pawn can actually use
+        int skipped = (from + to) >>> 1;
+        boolean epCapturable = flags == Move.DOUBLE_PUSH
+                && (Attacks.pawn(mover, skipped) & bitboards[(mover ^ 1) * 6 + Piece.PAWN]) != 0;
+        setEnPassantSquare(epCapturable ? skipped : -1);
+        setCastlingRights(castlingRights & CASTLE_MASK[from] & CASTLE_MASK[to]);
+        halfmoveClock = pawnMove || target != null ? 0 : halfmoveClock + 1;
+        if (mover == 1) fullmoveNumber++;
+        sideToMove ^= 1;
+        hash ^= Zobrist.SIDE;
+    }
+
+    /** Doubles the capacity of the undo stack. */
+    private void growUndoStack() {
+        undoMoves = Arrays.copyOf(undoMoves, ply * 2);
+        undoCaptured = Arrays.copyOf(undoCaptured, ply * 2);
+        undoHash = Arrays.copyOf(undoHash, ply * 2);
+        undoState = Arrays.copyOf(undoState, ply * 2);
+        undoPromoted = Arrays.copyOf(undoPromoted, ply * 2);
+    }
+
+    /**
+     * Passes the turn without moving, for null-move pruning: the side to
+     * move flips and the en-passant square is cleared. The halfmove clock
+     * restarts so repetition checks do not look back across the pass.
+     * The undo record holds {@link Move#NONE}; undo it with
+     * {@link #unmakeNullMove} or {@link #unmakeMove}.
+     */
+    public void makeNullMove() {
+        if (ply == undoMoves.length) growUndoStack();
+        undoMoves[ply] = Move.NONE;
+        undoHash[ply] = hash;
+        undoState[ply] = castlingRights | (epSquare + 1) << 4 | halfmoveClock << 11;
+        ply++;
+        setEnPassantSquare(-1);
+        halfmoveClock = 0;
+        if (sideToMove == 1) fullmoveNumber++;
+        sideToMove ^= 1;
+        hash ^= Zobrist.SIDE;
+    }
+
+    /**
+     * Reverts the most recent {@link #makeNullMove}.
+     *
+     * @throws IllegalStateException if the last record is not a null move
+     */
+    public void unmakeNullMove() {
+        if (ply == 0 || undoMoves[ply - 1] != Move.NONE) throw new IllegalStateException("No null move to undo");
+        ply--;
+        sideToMove ^= 1;
+        if (sideToMove == 1) fullmoveNumber--;
+        int state = undoState[ply];
+        epSquare = ((state >>> 4) & 127) - 1;
+        halfmoveClock = state >>> 11;
+        hash = undoHash[ply];
+    }
+
+    /**
+     * Reverts the most recent {@link #makeMove} (or {@link #makeNullMove}),
+     * restoring any captured piece, the side to move, castling rights,
+     * en-passant square and move counters.
+     *
+     * @throws IllegalStateException if there is no move to undo
+     */
+    public void unmakeMove() {
+        if (ply == 0) throw new IllegalStateException("No move to undo");
+        if (undoMoves[ply - 1] == Move.NONE) {
+            unmakeNullMove();
+            return;
+        }
+        ply--;
+        int move = undoMoves[ply];
+        int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+        Piece target = undoCaptured[ply];
+        undoCaptured[ply] = null;
+        sideToMove ^= 1;
+        if (sideToMove == 1) fullmoveNumber--;
+
+        if (Move.isPromotion(move)) {
+            remove(to);
+            put(undoPromoted[ply]);
+            undoPromoted[ply] = null;
+        } else {
+            relocate(to, from);
+            if (flags == Move.KING_CASTLE) relocate(to - 1, to + 1);
+            else if (flags == Move.QUEEN_CASTLE) relocate(to + 1, to - 2);
+        }
+        if (target != null) {
+            put(target);
+            // a committed capture from movePiece is no longer captured
+            int last = captured.size() - 1;
+            if (last >= 0 && captured.get(last) == target) captured.remove(last);
+        }
+
+        int state = undoState[ply];
+        castlingRights = state & 15;
+        epSquare = ((state >>> 4) & 127) - 1;
+        halfmoveClock = state >>> 11;
+        hash = undoHash[ply];
+    }
+
+    /**
+     * Plays a pseudo-legal move if it does not leave the mover's king in
+     * check. Illegal moves are taken back before returning.
+     *
+     * @param move packed move
+     * @return true if the move was legal and is now on the board
+     */
+    public boolean tryMakeMove(int move) {
+        int mover = sideToMove;
+        makeMove(move);
+        int kingSq = kingSquare[mover];
+        if (kingSq >= 0 && isSquareAttacked(kingSq, mover ^ 1)) {
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes every pseudo-legal move for the side to move into {@code moves}.
+     *
+     * @param moves output buffer of at least {@link #MAX_MOVES} entries
+     * @return number of moves written
+     */
+    public int generateMoves(int[] moves) {
+        return generateMoves(sideToMove, ~0L, moves, 0);
+    }
+
+    /**
+     * Writes the pseudo-legal moves for the side to move whose destination
+     * lies in {@code targets}, e.g. {@code 1L << square} to list only the
+     * moves onto one square. En-passant captures count as landing on the
+     * en-passant square.
+     *
+     * @param targets mask of allowed destination squares
+     * @param moves   output buffer of at least {@link #MAX_MOVES} entries
+     * @return number of moves written
+     */
+    public int generateMoves(long targets, int[] moves) {
+        return generateMoves(sideToMove, targets, moves, 0);
+    }
+
+    /**
+     * Writes every pseudo-legal move for one side into {@code moves}
+     * (see {@link Move} for the encoding). Moves may still leave the
+     * mover's king in check; nothing is allocated.
+     *
+     * @param color side to generate for
+     * @param moves output buffer of at least {@link #MAX_MOVES} entries
+     * @return number of moves written
+     */
+    public int generateMoves(Color color, int[] moves) {
+        return generateMoves(color.ordinal(), ~0L, moves, 0);
+    }
+
+    /**
+     * Appends pseudo-legal moves for {@code side} whose destination lies in
+     * {@code targets}.
+     *
+     * @return new number of moves in the buffer
+     */
+    int generateMoves(int side, long targets, int[] moves, int count) {
+        for (long own = occupancy[side]; own != 0; own &= own - 1) {
+            int sq = Long.numberOfTrailingZeros(own);
+            count = grid[sq >>> 3][sq & 7].possibleMoves(this, targets, moves, count);
+        }
+        return count;
     }
 
     /**
@@ -61,56 +849,78 @@ public class Board {
         return grid[r][c];
     }
 
+    /**
+     * @param square square index 0..63
+     * @return type index of the piece there ({@link Piece#PAWN} .. {@link Piece#KING}), or -1 if empty
+     */
+    public int getPieceType(int square) {
+        Piece p = grid[square >>> 3][square & 7];
+        return p == null ? -1 : p.getType();
+    }
+
     /**
      * Attempts to move a piece from {@code from} to {@code to}.
-     * Validates via the piece's {@code isValidMove}, blocks self-capture,
-     * captures opponents, and updates positions.
+     * The move must be one of the piece's generated moves, which covers
+     * self-capture, castling (given as the king's two-square move), en
+     * passant and promotion (always to a queen); it must not leave the
+     * mover's king in check. A rejected move leaves the board, side to
+     * move and hash unchanged.
      *
      * @param from start square
      * @param to   destination square
      * @return true if the move was executed; false if illegal/blocked
      */
     public boolean movePiece(Position from, Position to) {
-    if (from == null || to == null) return false;
-    int fr = from.row, fc = from.col, tr = to.row, tc = to.col;
-    if (fr < 0 || fr > 7 || fc < 0 || fc > 7 || tr < 0 || tr > 7 || tc < 0 || tc > 7) return false;
-    if (fr == tr && fc == tc) return false;
-
-    Piece p = grid[fr][fc];
-    if (p == null) return false;
-
-    // geometry/path validation delegated to the piece
-    if (!p.isValidMove(tr, tc, grid)) return false;
-
-    // prevent capturing your own color (generic)
-    Piece target = grid[tr][tc];
-    if (target != null && target.getColor().equals(p.getColor())) return false;
-
-    // NEW: Simulate the move to check if it leaves king in check
-    Position originalPos = new Position(p.getPosition().row, p.getPosition().col);
-    grid[fr][fc] = null;
-    grid[tr][tc] = p;
-    p.move(to);
-    
-    // Determine which color is moving
-    Color movingColor = p.getColor().equals("white") ? Color.WHITE : Color.BLACK;
-    boolean wouldBeInCheck = isCheck(movingColor);
-    
-    // Undo the simulation
-    p.move(originalPos);
-    grid[tr][tc] = target;
-    grid[fr][fc] = p;
-    
-    // If this move would leave our king in check, it's illegal
-    if (wouldBeInCheck) return false;
-
-    // Execute the actual move
-    if (target != null) captured.add(target);
-    grid[fr][fc] = null;
-    p.move(to);
-    grid[tr][tc] = p;
-    return true;
-}
+        return movePiece(from, to, -1);
+    }
+
+    /**
+     * Attempts to move a piece as {@link #movePiece(Position, Position)}
+     * does, choosing the piece a promoting pawn becomes.
+     *
+     * @param from      start square
+     * @param to        destination square
+     * @param promotion {@link Piece#KNIGHT} .. {@link Piece#QUEEN}, or -1
+     *                  for a queen; anything but -1 rejects a move that is
+     *                  not a promotion
+     * @return true if the move was executed; false if illegal/blocked
+     */
+    public boolean movePiece(Position from, Position to, int promotion) {
+        if (from == null || to == null) return false;
+        int fr = from.row, fc = from.col, tr = to.row, tc = to.col;
+        if (fr < 0 || fr > 7 || fc < 0 || fc > 7 || tr < 0 || tr > 7 || tc < 0 || tc > 7) return false;
+        if (fr == tr && fc == tc) return false;
+
+        Piece p = grid[fr][fc];
+        if (p == null) return false;
+
+        // the piece lists its moves to that square; promotions end with the queen
+        int n = p.possibleMoves(this, 1L << (tr * 8 + tc), mateMoves, 0);
+        if (n == 0) return false;
+        int move = mateMoves[n - 1];
+        if (promotion >= 0) {
+            move = Move.NONE;
+            for (int i = 0; i < n; i++) {
+                if (Move.isPromotion(mateMoves[i]) && Move.promotionType(mateMoves[i]) == promotion) move = mateMoves[i];
+            }
+            if (move == Move.NONE) return false;
+        }
+
+        // The mover decides whose turn it is for the undo stack; a rejected
+        // move puts the previous side (and hash) back
+        int previous = sideToMove;
+        setSideToMove(p.getSide());
+
+        // Play the move; it is taken back if it leaves our king in check
+        if (!tryMakeMove(move)) {
+            setSideToMove(previous);
+            return false;
+        }
+
+        Piece target = undoCaptured[ply - 1];
+        if (target != null) captured.add(target);
+        return true;
+    }
 
      /**
      * Checks if the given color is in check.
@@ -120,38 +930,103 @@ public class Board {
      * @return true if the king of that color is in check, false otherwise
      */
     public boolean isCheck(Color color) {
-        // Find the king of the specified color
-        Position kingPos = null;
-        String kingColor = (color == Color.WHITE) ? "white" : "black";
-        
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p instanceof King && p.getColor().equals(kingColor)) {
-                    kingPos = new Position(r, c);
-                    break;
-                }
-            }
-            if (kingPos != null) break;
-        }
-        
-        if (kingPos == null) return false; // No king found
-        
-        // Check if any opponent piece can attack the king's position
-        String opponentColor = (color == Color.WHITE) ? "black" : "white";
-        
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p != null && p.getColor().equals(opponentColor)) {
-                    if (p.isValidMove(kingPos.row, kingPos.col, grid)) {
-                        return true; // King is under attack
-                    }
-                }
-            }
+        int side = color.ordinal();
+        int kingSq = kingSquare[side];
+        if (kingSq < 0) return false; // No king on the board
+        return isSquareAttacked(kingSq, side ^ 1);
+    }
+
+    /**
+     * Checks whether any piece of {@code byColor} attacks a square.
+     * Rather than asking every enemy piece, this radiates outward from the
+     * square along knight, king, pawn and sliding rays; each ray stops at
+     * its first blocker.
+     *
+     * @param square  square index ({@code row * 8 + col})
+     * @param byColor attacking side
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, Color byColor) {
+        return isSquareAttacked(square, byColor.ordinal());
+    }
+
+    /**
+     * Static exchange evaluation: the material the side to move wins or
+     * loses by playing {@code move} and then letting both sides keep
+     * recapturing on its destination square, each with its least valuable
+     * attacker and each free to stop when going on would lose. Sliders
+     * behind a capturing piece join in as it leaves (x-rays). Pins and
+     * checks are not considered.
+     *
+     * @param move pseudo-legal move of the side to move, normally a capture
+     * @return expected gain in centipawns (0 or less for a quiet move)
+     */
+    public int see(int move) {
+        int from = Move.from(move), to = Move.to(move), flags = Move.flags(move);
+        long occ = occupied;
+        int victim = flags == Move.EN_PASSANT ? Piece.PAWN : getPieceType(to);
+        int mover = getPieceType(from);
+        int[] gain = seeGain;
+        gain[0] = victim < 0 ? 0 : SEE_VALUE[victim];
+        if (Move.isPromotion(move)) {
+            mover = Move.promotionType(move);
+            gain[0] += SEE_VALUE[mover] - SEE_VALUE[Piece.PAWN];
         }
-        
-        return false;
+        if (flags == Move.EN_PASSANT) occ ^= 1L << (from & ~7 | to & 7);
+
+        long diagonal = bitboards[Piece.BISHOP] | bitboards[Piece.QUEEN]
+                      | bitboards[6 + Piece.BISHOP] | bitboards[6 + Piece.QUEEN];
+        long straight = bitboards[Piece.ROOK] | bitboards[Piece.QUEEN]
+                      | bitboards[6 + Piece.ROOK] | bitboards[6 + Piece.QUEEN];
+        long attackers = attackersTo(to, occ);
+        long fromBit = 1L << from;
+        int side = sideToMove, d = 0;
+        while (true) {
+            d++;
+            // the piece now on the square is worth taking, minus what was gained so far
+            gain[d] = SEE_VALUE[mover] - gain[d - 1];
+            occ ^= fromBit;
+            attackers = (attackers | (Attacks.bishop(to, occ) & diagonal) | (Attacks.rook(to, occ) & straight)) & occ;
+            side ^= 1;
+            long mine = attackers & occupancy[side];
+            if (mine == 0) break;
+            for (mover = Piece.PAWN; (mine & bitboards[side * 6 + mover]) == 0; mover++) { }
+            fromBit = Long.lowestOneBit(mine & bitboards[side * 6 + mover]);
+        }
+        while (--d > 0) gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        return gain[0];
+    }
+
+    /** @return pieces of both sides attacking {@code square} given the occupancy {@code occ} */
+    private long attackersTo(int square, long occ) {
+        long queens = bitboards[Piece.QUEEN] | bitboards[6 + Piece.QUEEN];
+        return (Attacks.pawn(1, square) & bitboards[Piece.PAWN])
+             | (Attacks.pawn(0, square) & bitboards[6 + Piece.PAWN])
+             | (Attacks.knight(square) & (bitboards[Piece.KNIGHT] | bitboards[6 + Piece.KNIGHT]))
+             | (Attacks.king(square) & (bitboards[Piece.KING] | bitboards[6 + Piece.KING]))
+             | (Attacks.bishop(square, occ) & (bitboards[Piece.BISHOP] | bitboards[6 + Piece.BISHOP] | queens))
+             | (Attacks.rook(square, occ) & (bitboards[Piece.ROOK] | bitboards[6 + Piece.ROOK] | queens));
+    }
+
+    /**
+     * Side-index form of {@link #isSquareAttacked(int, Color)}.
+     *
+     * @param square square index ({@code row * 8 + col})
+     * @param bySide attacking side (0 = white, 1 = black)
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, int bySide) {
+        int base = bySide * 6;
+        if ((Attacks.knight(square) & bitboards[base + Piece.KNIGHT]) != 0) return true;
+        // an enemy pawn attacks us from where our own pawn here would attack
+        if ((Attacks.pawn(bySide ^ 1, square) & bitboards[base + Piece.PAWN]) != 0) return true;
+        if ((Attacks.king(square) & bitboards[base + Piece.KING]) != 0) return true;
+
+        long queens = bitboards[base + Piece.QUEEN];
+        long diagonal = bitboards[base + Piece.BISHOP] | queens;
+        if (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0) return true;
+        long straight = bitboards[base + Piece.ROOK] | queens;
+        return straight != 0 && (Attacks.rook(square, occupied) & straight) != 0;
     }
 
     /**
@@ -167,50 +1042,22 @@ public class Board {
         if (!isCheck(color)) {
             return false; // Not even in check
         }
-        
-        String playerColor = (color == Color.WHITE) ? "white" : "black";
-        
-        // Try every possible move for this player
-        for (int fr = 0; fr < 8; fr++) {
-            for (int fc = 0; fc < 8; fc++) {
-                Piece p = grid[fr][fc];
-                if (p == null || !p.getColor().equals(playerColor)) continue;
-                
-                // Try all destination squares
-                for (int tr = 0; tr < 8; tr++) {
-                    for (int tc = 0; tc < 8; tc++) {
-                        if (fr == tr && fc == tc) continue;
-                        
-                        // Check if this move is valid
-                        if (!p.isValidMove(tr, tc, grid)) continue;
-                        
-                        Piece target = grid[tr][tc];
-                        if (target != null && target.getColor().equals(playerColor)) continue;
-                        
-                        // Simulate the move
-                        Position originalPos = new Position(fr, fc);
-                        grid[fr][fc] = null;
-                        grid[tr][tc] = p;
-                        Position tempPos = p.getPosition();
-                        p.move(new Position(tr, tc));
-                        
-                        // Check if still in check after this move
-                        boolean stillInCheck = isCheck(color);
-                        
-                        // Undo the move
-                        grid[tr][tc] = target;
-                        grid[fr][fc] = p;
-                        p.move(tempPos);
-                        
-                        // If this move gets us out of check, not checkmate
-                        if (!stillInCheck) {
-                            return false;
-                        }
-                    }
-                }
+
+        int n = generateMoves(color.ordinal(), ~0L, mateMoves, 0);
+
+        // Try every pseudo-legal move for this player
+        int saved = sideToMove;
+        setSideToMove(color.ordinal());
+        for (int i = 0; i < n; i++) {
+            // If this move gets us out of check, not checkmate
+            if (tryMakeMove(mateMoves[i])) {
+                unmakeMove();
+                setSideToMove(saved);
+                return false;
             }
         }
-        
+        setSideToMove(saved);
+
         return true;
     }
 
@@ -0,0 +1,38 @@
+package board;
+
+/**
+ * Receives every piece placement change on a {@link Board}, so an
+ * evaluator can keep its own per-piece state in step with the position
+ * instead of rescanning it. Moves, captures, promotions and their undos
+ * all arrive as these three calls.
+ * <p>
+ * Pieces are identified as {@code side * 6 + type} (0..11), with the type
+ * index from {@link pieces.Piece#PAWN} .. {@link pieces.Piece#KING}.
+ */
+public interface FeatureListener {
+
+    /**
+     * A piece was placed on an empty square.
+     *
+     * @param piece  {@code side * 6 + type}
+     * @param square square index 0..63
+     */
+    void pieceAdded(int piece, int square);
+
+    /**
+     * A piece was taken off the board.
+     *
+     * @param piece  {@code side * 6 + type}
+     * @param square square it stood on
+     */
+    void pieceRemoved(int piece, int square);
+
+    /**
+     * A piece moved to an empty square.
+     *
+     * @param piece {@code side * 6 + type}
+     * @param from  square it left
+     * @param to    square it moved to
+     */
+    void pieceMoved(int piece, int from, int to);
+}
@@ -0,0 +1,104 @@
+package board;
+
+/**
+ * Packs moves into a single {@code int} so generators can write them into
+ * primitive buffers without allocating.
+ * <p>
+ * Layout (low to high bits):
+ * <ul>
+ *   <li>bits 0–5: origin square ({@code row * 8 + col})</li>
+ *   <li>bits 6–11: destination square</li>
+ *   <li>bits 12–15: flags ({@link #QUIET}, {@link #CAPTURE}, ...)</li>
+ * </ul>
+ * This class only holds static helpers and cannot be instantiated.
+ */
+public final class Move {
+
+    /** Sentinel for "no move"; never produced by a generator. */
+    public static final int NONE = 0;
+
+    /** Plain non-capturing move. */
+    public static final int QUIET = 0;
+
+    /** Pawn advancing two squares from its start row. */
+    public static final int DOUBLE_PUSH = 1;
+
+    /** King-side castle; the move is the king's, the rook follows. */
+    public static final int KING_CASTLE = 2;
+
+    /** Queen-side castle; the move is the king's, the rook follows. */
+    public static final int QUEEN_CASTLE = 3;
+
+    /** Move that removes an enemy piece from the destination square. */
+    public static final int CAPTURE = 4;
+
+    /** En-passant capture; the captured pawn is beside the destination. */
+    public static final int EN_PASSANT = 5;
+
+    /** Promotion bit; the low two flag bits select knight..queen. */
+    public static final int PROMOTION = 8;
+
+    private Move() { }
+
+    /**
+     * Builds an encoded move.
+     *
+     * @param from  origin square
+     * @param to    destination square
+     * @param flags move flags
+     * @return packed move
+     */
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    /** @return origin square of a packed move */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /** @return destination square of a packed move */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /** @return flag bits of a packed move */
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    /** @return true if the move removes an enemy piece */
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE << 12)) != 0;
+    }
+
+    /** @return true if the move promotes a pawn */
+    public static boolean isPromotion(int move) {
+        return (move & (PROMOTION << 12)) != 0;
+    }
+
+    /**
+     * @param move packed promotion move
+     * @return piece type promoted to ({@code Piece.KNIGHT} .. {@code Piece.QUEEN})
+     */
+    public static int promotionType(int move) {
+        return 1 + ((move >>> 12) & 3);
+    }
+
+    /**
+     * Formats a move in coordinate notation, e.g. {@code e2e4} or
+     * {@code e7e8q} for a promotion.
+     *
+     * @param move packed move
+     * @return move text
+     */
+    public static String toString(int move) {
+        String text = square(from(move)) + square(to(move));
+        return isPromotion(move) ? text + "nbrq".charAt(promotionType(move) - 1) : text;
+    }
+
+    /** @return square name such as {@code e4} for a square index */
+    static String square(int sq) {
+        return "" + (char) ('a' + (sq & 7)) + (char) ('8' - (sq >>> 3));
+    }
+}
@@ -0,0 +1,169 @@
+package board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft (performance test) node counter for {@link Board}.
+ * <p>
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The totals
+ * are a regression check for move generation and legality testing, and
+ * the elapsed time gives a nodes-per-second figure to track across
+ * releases. Each instance owns one move buffer per ply, so a walk does
+ * not allocate; use one instance per thread.
+ */
+public class Perft {
+
+    /** Deepest walk supported by the per-ply buffers. */
+    public static final int MAX_DEPTH = 32;
+
+    /** Move buffers indexed by remaining depth. */
+    private final int[][] moves = new int[MAX_DEPTH + 1][Board.MAX_MOVES];
+
+    /**
+     * Counts leaf nodes below the current position.
+     *
+     * @param board position to walk (restored before returning)
+     * @param depth plies to walk, 0..{@link #MAX_DEPTH}
+     * @return number of leaf nodes
+     */
+    public long count(Board board, int depth) {
+        if (depth == 0) return 1;
+        int[] buf = moves[depth];
+        int n = board.generateMoves(buf);
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            if (!board.tryMakeMove(buf[i])) continue;
+            // bulk-count at the last ply: a legal move is one leaf
+            nodes += (depth == 1) ? 1 : count(board, depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes per legal root move and prints one line per move
+     * (e.g. {@code e2e4: 600}) followed by the total.
+     *
+     * @param board position to walk (restored before returning)
+     * @param depth plies to walk; at 0 the position itself is the one leaf
+     * @return total number of leaf nodes
+     */
+    public long divide(Board board, int depth) {
+        if (depth < 1) {
+            System.out.println("Total: 1");
+            return 1;
+        }
+        int[] root = new int[Board.MAX_MOVES];
+        int n = board.generateMoves(root);
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            if (!board.tryMakeMove(root[i])) continue;
+            long nodes = count(board, depth - 1);
+            board.unmakeMove();
+            System.out.println(Move.toString(root[i]) + ": " + nodes);
+            total += nodes;
+        }
+        System.out.println("Total: " + total);
+        return total;
+    }
+
+    /**
+     * Counts leaf nodes with the legal root moves split across a
+     * fork-join pool. Each task walks its own copy of the board.
+     *
+     * @param board position to walk (not modified)
+     * @param depth plies to walk; at 0 the position itself is the one leaf
+     * @param pool  pool to run the root tasks on
+     * @return number of leaf nodes
+     */
+    public static long parallel(Board board, int depth, ForkJoinPool pool) {
+        if (depth < 1) return 1;
+        int[] root = new int[Board.MAX_MOVES];
+        int n = board.generateMoves(root);
+        List<RootTask> tasks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (!board.tryMakeMove(root[i])) continue;
+            board.unmakeMove();
+            tasks.add(new RootTask(board, root[i], depth - 1));
+        }
+        return pool.submit(() -> {
+            long total = 0;
+            for (RootTask t : RecursiveTask.invokeAll(tasks)) total += t.join();
+            return total;
+        }).join();
+    }
+
+    /** Walks the subtree below one root move on a private board copy. */
+    private static class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int move;
+        private final int depth;
+
+        RootTask(Board board, int move, int depth) {
+            this.board = new Board(board);
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            board.makeMove(move);
+            return new Perft().count(board, depth);
+        }
+    }
+
+    /**
+     * Runs perft from the classic starting position, or a FEN position,
+     * and reports nodes/sec.
+     * <p>
+     * Usage: {@code java board.Perft <depth> [divide] [threads <n>] [fen "<fen>"]}
+     *
+     * @param args depth, optional {@code divide}, optional {@code threads n},
+     *             optional {@code fen} followed by the position (quoted or as
+     *             the remaining arguments)
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean divide = false;
+        int threads = 1;
+        String fen = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("divide")) divide = true;
+            else if (args[i].equalsIgnoreCase("threads") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else if (args[i].equalsIgnoreCase("fen") && i + 1 < args.length) {
+                fen = String.join(" ", Arrays.copyOfRange(args, i + 1, args.length));
+                break;
+            }
+        }
+
+        Board board = new Board();
+        if (fen != null) board.setFen(fen);
+        else board.setupClassic();
+
+        long start = System.nanoTime();
+        long nodes;
+        if (divide) {
+            nodes = new Perft().divide(board, depth);
+        } else if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                nodes = parallel(board, depth, pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            nodes = new Perft().count(board, depth);
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        System.out.println("Depth: " + depth + "  Threads: " + threads);
+        System.out.println("Nodes: " + nodes);
+        System.out.printf("Time: %.1f ms  NPS: %,d%n", elapsed / 1e6, nodes * 1_000_000_000L / elapsed);
+    }
+}
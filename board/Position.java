@@ -14,6 +14,13 @@ package board;
  */
 public class Position {
 
+    /** Shared instances for all 64 squares, indexed by {@code row * 8 + col}. */
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) SQUARES[sq] = new Position(sq >>> 3, sq & 7);
+    }
+
     /** The row index on the board (0–7, top to bottom). */
     public final int row;
 
@@ -30,4 +37,51 @@ public class Position {
         this.row = row;
         this.col = col;
     }
+
+    /**
+     * Returns the shared instance for an on-board square, so hot paths can
+     * update piece positions without allocating.
+     *
+     * @param row the row index (0–7)
+     * @param col the column index (0–7)
+     * @return cached position
+     */
+    public static Position of(int row, int col) {
+        return SQUARES[row * 8 + col];
+    }
+
+    /**
+     * Returns the shared instance for a square index.
+     *
+     * @param square square index {@code row * 8 + col} (0–63)
+     * @return cached position
+     */
+    public static Position of(int square) {
+        return SQUARES[square];
+    }
+
+    /** @return square index {@code row * 8 + col} used by the bitboards */
+    public int toSquare() {
+        return row * 8 + col;
+    }
+
+    /**
+     * Two positions are equal when they name the same square.
+     *
+     * @param o other object
+     * @return true if {@code o} is a Position with the same row and column
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Position)) return false;
+        Position other = (Position) o;
+        return row == other.row && col == other.col;
+    }
+
+    /** @return hash code consistent with {@link #equals} */
+    @Override
+    public int hashCode() {
+        return row * 8 + col;
+    }
 }
@@ -0,0 +1,46 @@
+package board;
+
+/**
+ * Random keys for Zobrist hashing of {@link Board} positions.
+ * <p>
+ * A position's key is the XOR of one key per (piece, square) pair, plus
+ * {@link #SIDE} when black is to move, plus the castling-rights key and
+ * the en-passant-file key when an en-passant capture square is set. Because XOR is its
+ * own inverse, a move updates the key by toggling only the keys that
+ * changed. The keys come from a fixed seed so hashes are stable across
+ * runs.
+ */
+public final class Zobrist {
+
+    /** Piece keys indexed by {@code side * 6 + type}, then square. */
+    static final long[][] PIECES = new long[12][64];
+
+    /** Toggled whenever the side to move changes. */
+    static final long SIDE;
+
+    /** Keys for each combination of the four castling rights; no rights has key 0. */
+    static final long[] CASTLING = new long[16];
+
+    /** Keys for the file of an en-passant target square. */
+    static final long[] EN_PASSANT = new long[8];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < 64; sq++) keys[sq] = splitMix(seed += 0x9E3779B97F4A7C15L);
+        }
+        SIDE = splitMix(seed += 0x9E3779B97F4A7C15L);
+        // no rights hashes to zero, so an empty board has key 0
+        for (int i = 1; i < CASTLING.length; i++) CASTLING[i] = splitMix(seed += 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < EN_PASSANT.length; i++) EN_PASSANT[i] = splitMix(seed += 0x9E3779B97F4A7C15L);
+    }
+
+    private Zobrist() { }
+
+    /** SplitMix64 finalizer: spreads a counter into a well-mixed 64-bit key. */
+    private static long splitMix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
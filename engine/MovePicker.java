@@ -0,0 +1,229 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import pieces.Piece;
+
+/**
+ * Hands out the moves of one search node best-first, generating them in
+ * stages so a node that is cut off early never pays for the rest:
+ * <ol>
+ *   <li>the transposition-table move, checked against a generation
+ *       restricted to its destination square;</li>
+ *   <li>captures (including en passant), most valuable victim first and
+ *       least valuable attacker among equals (MVV-LVA);</li>
+ *   <li>the two killer moves of the ply, quiet moves that caused a cutoff
+ *       in a sibling node;</li>
+ *   <li>the remaining quiet moves, queen promotions first and the rest
+ *       by their butterfly history score.</li>
+ * </ol>
+ * Quiet moves are generated only once the killers are exhausted. For
+ * quiescence search, {@link #initCaptures} runs the capture stage alone.
+ * Moves are pseudo-legal; the caller still plays them with
+ * {@link Board#tryMakeMove}. One picker per ply is reused for the whole
+ * search, so nothing is allocated per node.
+ */
+public class MovePicker {
+
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_CAPTURES_INIT = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_KILLERS = 3;
+    private static final int STAGE_QUIETS_INIT = 4;
+    private static final int STAGE_QUIETS = 5;
+    private static final int STAGE_DONE = 6;
+
+    /** Every move in generation order, after the hash move (ordering disabled). */
+    private static final int STAGE_UNORDERED = 7;
+
+    /** Score that puts queen promotions ahead of every history score. */
+    private static final int PROMOTION_SCORE = 1 << 30;
+
+    private final int[] moves = new int[Board.MAX_MOVES];
+    private final int[] scores = new int[Board.MAX_MOVES];
+
+    /** Scratch buffer for checking the hash move and killers. */
+    private final int[] probe = new int[Board.MAX_MOVES];
+
+    private Board board;
+    private int[] history;
+    private int hashMove, killer1, killer2;
+    private int stage, count, index;
+
+    /** True to stop after the captures. */
+    private boolean capturesOnly;
+
+    /**
+     * Prepares the picker for a node.
+     *
+     * @param board    position (must not change until the node is finished)
+     * @param hashMove move from the transposition table, or {@link Move#NONE}
+     * @param killer1  first killer of the ply, or {@link Move#NONE}
+     * @param killer2  second killer of the ply, or {@link Move#NONE}
+     * @param history  butterfly table indexed by {@code side * 4096 + from * 64 + to}
+     * @param ordered  false to return the moves in generation order, with
+     *                 only the hash move first
+     */
+    public void init(Board board, int hashMove, int killer1, int killer2, int[] history, boolean ordered) {
+        this.board = board;
+        this.history = history;
+        this.killer1 = killer1;
+        this.killer2 = killer2 != killer1 ? killer2 : Move.NONE;
+        this.hashMove = hashMove != Move.NONE && isPseudoLegal(hashMove) ? hashMove : Move.NONE;
+        this.stage = ordered ? STAGE_HASH : STAGE_UNORDERED;
+        this.capturesOnly = false;
+        this.count = 0;
+        this.index = 0;
+        if (!ordered) {
+            count = board.generateMoves(moves);
+            if (this.hashMove != Move.NONE) moveToFront(this.hashMove);
+        }
+    }
+
+    /**
+     * Prepares the picker to return only the captures of a node, en
+     * passant and capturing promotions included, by MVV-LVA.
+     *
+     * @param board position (must not change until the node is finished)
+     */
+    public void initCaptures(Board board) {
+        this.board = board;
+        this.hashMove = this.killer1 = this.killer2 = Move.NONE;
+        this.stage = STAGE_CAPTURES_INIT;
+        this.capturesOnly = true;
+        this.count = 0;
+        this.index = 0;
+    }
+
+    /** @return the next move to try, or {@link Move#NONE} when there are none left */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH:
+                    stage = STAGE_CAPTURES_INIT;
+                    if (hashMove != Move.NONE) return hashMove;
+                    break;
+                case STAGE_CAPTURES_INIT:
+                    generateCaptures();
+                    stage = STAGE_CAPTURES;
+                    break;
+                case STAGE_CAPTURES:
+                    if (index < count) {
+                        int move = pickBest();
+                        if (move != hashMove) return move;
+                        break;
+                    }
+                    stage = capturesOnly ? STAGE_DONE : STAGE_KILLERS;
+                    index = 0;
+                    break;
+                case STAGE_KILLERS:
+                    int killer = index == 0 ? killer1 : index == 1 ? killer2 : Move.NONE;
+                    if (index++ < 2) {
+                        if (killer != Move.NONE && killer != hashMove && !Move.isCapture(killer)
+                                && isPseudoLegal(killer)) {
+                            return killer;
+                        }
+                        break;
+                    }
+                    stage = STAGE_QUIETS_INIT;
+                    break;
+                case STAGE_QUIETS_INIT:
+                    generateQuiets();
+                    stage = STAGE_QUIETS;
+                    break;
+                case STAGE_QUIETS:
+                    if (index < count) {
+                        int move = pickBest();
+                        if (move != hashMove && move != killer1 && move != killer2) return move;
+                        break;
+                    }
+                    stage = STAGE_DONE;
+                    break;
+                case STAGE_UNORDERED:
+                    if (index < count) return moves[index++];
+                    stage = STAGE_DONE;
+                    break;
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+
+    /** Generates and scores the captures, en passant included. */
+    private void generateCaptures() {
+        int us = board.getSideToMove();
+        int ep = board.getEnPassantSquare();
+        long targets = board.getOccupancy(us ^ 1) | (ep >= 0 ? 1L << ep : 0);
+        int n = board.generateMoves(targets, moves);
+        count = 0;
+        index = 0;
+        for (int i = 0; i < n; i++) {
+            int move = moves[i];
+            // pieces other than pawns may step onto the empty en-passant square
+            if (!Move.isCapture(move)) continue;
+            int victim = Move.flags(move) == Move.EN_PASSANT ? Piece.PAWN : board.getPieceType(Move.to(move));
+            int attacker = board.getPieceType(Move.from(move));
+            int score = victim * 8 + (Piece.KING - attacker);
+            if (Move.isPromotion(move)) score += Move.promotionType(move) * 8;
+            moves[count] = move;
+            scores[count++] = score;
+        }
+    }
+
+    /** Generates and scores the quiet moves, castling and quiet promotions included. */
+    private void generateQuiets() {
+        int n = board.generateMoves(~board.getOccupied(), moves);
+        int base = board.getSideToMove() * 4096;
+        count = 0;
+        index = 0;
+        for (int i = 0; i < n; i++) {
+            int move = moves[i];
+            // en passant lands on an empty square but was taken with the captures
+            if (Move.isCapture(move)) continue;
+            int score;
+            if (Move.isPromotion(move)) {
+                score = Move.promotionType(move) == Piece.QUEEN ? PROMOTION_SCORE : -PROMOTION_SCORE;
+            } else {
+                score = history[base + Move.from(move) * 64 + Move.to(move)];
+            }
+            moves[count] = move;
+            scores[count++] = score;
+        }
+    }
+
+    /** Selection step: swaps the best remaining move to {@link #index} and returns it. */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) best = i;
+        }
+        int move = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        index++;
+        return move;
+    }
+
+    /** Moves {@code move} to the front of the unordered list. */
+    private void moveToFront(int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks that a move from the table or a sibling node can be played
+     * here, by generating only the moves onto its destination square.
+     */
+    private boolean isPseudoLegal(int move) {
+        int n = board.generateMoves(1L << Move.to(move), probe);
+        for (int i = 0; i < n; i++) {
+            if (probe[i] == move) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+package engine;
+
+import board.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy-SMP parallel search: every thread runs its own {@link Search} on a
+ * private copy of the root position, sharing one {@link TranspositionTable}.
+ * <p>
+ * The threads cooperate only through the shared table. A thread that
+ * finishes a subtree leaves results that let the others cut off earlier.
+ * Odd-numbered helpers search one ply deeper on every iteration, which
+ * staggers the threads so they fill the table with different depths
+ * instead of repeating each other's work. When the main thread finishes,
+ * a shared stop flag ends the helpers. The reported move comes from the
+ * thread that completed the deepest iteration.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private final int threads;
+    private final TranspositionTable tt;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+    private final Search[] searches;
+    private final ExecutorService helpers;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param threads number of search threads including the caller, at least 1
+     * @param tt      table shared by all threads
+     */
+    public ParallelSearch(int threads, TranspositionTable tt) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+        this.threads = threads;
+        this.tt = tt;
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) searches[i] = new Search(tt, stopFlag, i & 1);
+        this.helpers = threads > 1
+                ? Executors.newFixedThreadPool(threads - 1, r -> {
+                    Thread t = new Thread(r, "search-helper");
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+    }
+
+    /**
+     * Searches the position on all threads until the main thread reaches
+     * {@code maxDepth}, the time runs out or {@link #stop()} is called.
+     *
+     * @param board    root position (not modified)
+     * @param maxDepth depth limit for the main thread
+     * @param millis   time limit in milliseconds, or 0 for none
+     * @return deepest result, with {@link SearchResult#nodes} summed over all threads
+     */
+    public SearchResult search(Board board, int maxDepth, long millis) {
+        stopFlag.set(false);
+        tt.newSearch();
+
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Search helper = searches[i];
+            Board copy = new Board(board);
+            // helpers keep deepening until the main thread stops them
+            running.add(helpers.submit(() -> helper.search(copy, Search.MAX_PLY, millis)));
+        }
+
+        SearchResult best = searches[0].search(new Board(board), maxDepth, millis);
+        stopFlag.set(true);
+
+        long nodes = best.nodes;
+        for (Future<SearchResult> f : running) {
+            try {
+                SearchResult r = f.get();
+                nodes += r.nodes;
+                if (r.depth > best.depth && r.move != 0) best = r;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(best.move, best.score, best.depth, nodes, best.millis, best.getPv());
+    }
+
+    /** Asks all threads to stop. Safe to call from any thread. */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    /**
+     * @return nodes visited by each thread in the current or most recent
+     *         search, main thread first
+     */
+    public long[] getThreadNodes() {
+        long[] nodes = new long[threads];
+        for (int i = 0; i < threads; i++) nodes[i] = searches[i].getNodes();
+        return nodes;
+    }
+
+    /** @return number of search threads */
+    public int getThreads() {
+        return threads;
+    }
+
+    /** Stops and releases the helper threads. */
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) helpers.shutdownNow();
+    }
+
+    /**
+     * Measures time-to-depth of a parallel search against a single thread,
+     * each starting from an empty table of the same size.
+     *
+     * @param board   position to search
+     * @param depth   target depth
+     * @param threads threads for the parallel run
+     * @param ttMb    table size in MB
+     * @return single-thread time divided by parallel time
+     */
+    public static double measureSpeedup(Board board, int depth, int threads, int ttMb) {
+        long single = timeToDepth(board, depth, 1, ttMb);
+        long parallel = timeToDepth(board, depth, threads, ttMb);
+        return (double) single / Math.max(1, parallel);
+    }
+
+    private static long timeToDepth(Board board, int depth, int threads, int ttMb) {
+        try (ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(ttMb))) {
+            long start = System.nanoTime();
+            search.search(board, depth, 0);
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Reports the speedup of a parallel search over one thread from the
+     * classic start position.
+     * <p>
+     * Usage: {@code java engine.ParallelSearch [threads] [depth]}
+     *
+     * @param args thread count (default: all cores) and depth (default 7)
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        Board board = new Board();
+        board.setupClassic();
+
+        // warm up the JIT so the first timed run is not penalised
+        timeToDepth(board, Math.max(1, depth - 2), 1, 64);
+
+        try (ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(64))) {
+            SearchResult result = search.search(board, depth, 0);
+            System.out.println(result);
+            long[] perThread = search.getThreadNodes();
+            for (int i = 0; i < perThread.length; i++) {
+                System.out.println("thread " + i + " nodes " + perThread[i]);
+            }
+        }
+        System.out.printf("Speedup with %d threads at depth %d: %.2fx%n",
+                threads, depth, measureSpeedup(board, depth, threads, 64));
+    }
+}
@@ -0,0 +1,589 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import nnue.Accumulator;
+import nnue.Network;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Iterative-deepening negamax alpha-beta search over {@link Board}.
+ * <p>
+ * The search walks the tree with {@link Board#makeMove}/{@link Board#unmakeMove}
+ * and writes moves into per-ply buffers owned by this object, so no
+ * positions or lists are allocated per node. Results are cached in a
+ * {@link TranspositionTable}. Moves are ordered by a {@link MovePicker}
+ * per ply: the table's best move, captures by MVV-LVA, killer moves, then
+ * quiet moves by history score. At depth 0 a quiescence search plays out
+ * captures, skipping those that lose material by static exchange
+ * evaluation ({@link Board#see}) or gain too little to matter, so leaves
+ * are not scored in the middle of an exchange.
+ * <p>
+ * Four selective techniques spend the nodes where they matter; each can be
+ * switched off for measurement:
+ * <ul>
+ *   <li>null-move pruning: if passing the turn still fails high in a
+ *       reduced search, the node is cut off. Not tried when in check or
+ *       when the side to move has only king and pawns, where zugzwang
+ *       makes passing unsound;</li>
+ *   <li>late-move reductions: quiet moves late in the ordering are first
+ *       searched shallower, more so the later they come and less if their
+ *       history score is high, and re-searched at full depth only if they
+ *       beat alpha;</li>
+ *   <li>check extensions: a side in check is searched one ply deeper;</li>
+ *   <li>futility pruning: one or two plies from the leaves, quiet moves
+ *       are skipped when the static evaluation plus a margin cannot reach
+ *       alpha.</li>
+ * </ul>
+ * An instance is single-threaded; create one per thread.
+ */
+public class Search {
+
+    /** Score bound larger than any real score. */
+    public static final int INFINITY = 32000;
+
+    /** Score for delivering mate at the root; mate in n plies scores {@code MATE - n}. */
+    public static final int MATE = 31000;
+
+    /** Deepest ply the per-ply buffers support. */
+    public static final int MAX_PLY = 64;
+
+    /** Depth reduction of the null-move search, on top of the ply passed. */
+    private static final int NULL_MOVE_REDUCTION = 2;
+
+    /** Static evaluation margins for futility pruning, indexed by remaining depth. */
+    private static final int[] FUTILITY_MARGIN = {0, 150, 300};
+
+    /** Legal moves searched at full depth before late-move reductions start. */
+    private static final int LMR_FULL_DEPTH_MOVES = 3;
+
+    /** Quiet moves with at least this history score are reduced one ply less. */
+    private static final int LMR_HISTORY_GOOD = 1 << 12;
+
+    /** Quiescence skips a capture whose exchange gain leaves the score this far below alpha. */
+    private static final int DELTA_MARGIN = 200;
+
+    /** How often (in nodes) the clock is checked. */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final TranspositionTable tt;
+
+    /** History bonuses are halved once any entry passes this value. */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    /** Move pickers, one per ply. */
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+
+    /** Two killer moves per ply: quiet moves that last caused a cutoff there. */
+    private final int[][] killers = new int[MAX_PLY][2];
+
+    /** Butterfly history: cutoff bonus per {@code side * 4096 + from * 64 + to}. */
+    private final int[] history = new int[2 * 64 * 64];
+
+    /** Move buffer for {@link #firstLegalMove}. */
+    private final int[] rootMoves = new int[Board.MAX_MOVES];
+
+    /** False to search moves in generation order after the hash move. */
+    private boolean moveOrdering = true;
+
+    /** False to score depth-0 nodes statically instead of with a quiescence search. */
+    private boolean quiescence = true;
+
+    /** False to search losing captures in the quiescence search too. */
+    private boolean seePruning = true;
+
+    /** False to never cut a node off with a reduced search after passing the turn. */
+    private boolean nullMovePruning = true;
+
+    /** False to search late quiet moves at full depth straight away. */
+    private boolean lateMoveReductions = true;
+
+    /** False to search positions in check at the normal depth. */
+    private boolean checkExtensions = true;
+
+    /** False to search hopeless quiet moves near the leaves too. */
+    private boolean futilityPruning = true;
+
+    /** True at a ply while its null-move search runs, so the child does not pass again. */
+    private final boolean[] nullMoveAt = new boolean[MAX_PLY];
+
+    /** Neural evaluation state, or null to use {@link Board#evaluate()}. */
+    private Accumulator accumulator;
+
+    /** Triangular principal-variation table. */
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+
+    /** Length of the principal variation stored at each ply. */
+    private final int[] pvLength = new int[MAX_PLY];
+
+    /** Stop request, possibly shared by every thread of a parallel search. */
+    private final AtomicBoolean stopFlag;
+
+    /** True if this search owns {@link #stopFlag} and may reset it. */
+    private final boolean ownsStopFlag;
+
+    /** Extra plies added to every iteration, used to stagger helper threads. */
+    private final int depthOffset;
+
+    private long nodes;
+
+    /** Part of {@link #nodes} visited by the quiescence search. */
+    private long qnodes;
+    private long deadline;
+
+    /** Node budget of the current search; it stops once {@link #nodes} reaches it. */
+    private long nodeLimit = Long.MAX_VALUE;
+
+    /** Receives the result of every completed iteration, or null. */
+    private Consumer<SearchResult> iterationListener;
+
+    /** Set once the clock or the stop flag ends this search. */
+    private boolean stopped;
+
+    /** Creates a search with its own 16 MB transposition table. */
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * Creates a search that caches results in the given table.
+     *
+     * @param tt transposition table (may be shared with other searches)
+     */
+    public Search(TranspositionTable tt) {
+        this(tt, new AtomicBoolean(), true, 0);
+    }
+
+    /**
+     * Creates one thread's search for {@link ParallelSearch}.
+     *
+     * @param tt          shared transposition table
+     * @param stopFlag    shared stop flag, reset by the coordinator
+     * @param depthOffset extra plies per iteration
+     */
+    Search(TranspositionTable tt, AtomicBoolean stopFlag, int depthOffset) {
+        this(tt, stopFlag, false, depthOffset);
+    }
+
+    private Search(TranspositionTable tt, AtomicBoolean stopFlag, boolean ownsStopFlag, int depthOffset) {
+        this.tt = tt;
+        this.stopFlag = stopFlag;
+        this.ownsStopFlag = ownsStopFlag;
+        this.depthOffset = depthOffset;
+        for (int i = 0; i < MAX_PLY; i++) pickers[i] = new MovePicker();
+    }
+
+    /**
+     * Searches to a fixed depth.
+     *
+     * @param board    position to search (restored before returning)
+     * @param maxDepth depth in plies, 1..{@link #MAX_PLY} - 1
+     * @return best move, score and principal variation
+     */
+    public SearchResult search(Board board, int maxDepth) {
+        return search(board, maxDepth, 0);
+    }
+
+    /**
+     * Searches with iterative deepening until the depth is reached, the
+     * time runs out or {@link #stop()} is called. The result is always
+     * from the deepest completed iteration.
+     *
+     * @param board    position to search (restored before returning)
+     * @param maxDepth depth limit in plies
+     * @param millis   time limit in milliseconds, or 0 for none
+     * @return best move, score and principal variation
+     */
+    public SearchResult search(Board board, int maxDepth, long millis) {
+        return search(board, maxDepth, millis, 0);
+    }
+
+    /**
+     * Like {@link #search(Board, int, long)}, additionally stopping after
+     * a number of nodes. If a limit ends the search before the first
+     * iteration finishes, the first legal move is returned.
+     *
+     * @param board    position to search (restored before returning)
+     * @param maxDepth depth limit in plies
+     * @param millis   time limit in milliseconds, or 0 for none
+     * @param maxNodes node limit, or 0 for none
+     * @return best move, score and principal variation
+     */
+    public SearchResult search(Board board, int maxDepth, long millis, long maxNodes) {
+        long start = System.nanoTime();
+        deadline = millis > 0 ? start + millis * 1_000_000L : Long.MAX_VALUE;
+        nodeLimit = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        if (ownsStopFlag) {
+            stopFlag.set(false);
+            tt.newSearch();
+        }
+        stopped = false;
+        nodes = 0;
+        qnodes = 0;
+        for (int[] k : killers) Arrays.fill(k, Move.NONE);
+        ageHistory();
+        if (accumulator != null) accumulator.attach(board);
+        try {
+            return iterate(board, maxDepth, start);
+        } finally {
+            if (accumulator != null) accumulator.detach();
+        }
+    }
+
+    /** Iterative deepening loop of {@link #search(Board, int, long, long)}. */
+    private SearchResult iterate(Board board, int maxDepth, long start) {
+        maxDepth = Math.max(1, Math.min(maxDepth, MAX_PLY - 1 - depthOffset));
+
+        int bestMove = Move.NONE, bestScore = 0, completed = 0;
+        int[] bestPv = new int[0];
+        for (int iteration = 1; iteration <= maxDepth; iteration++) {
+            int depth = iteration + depthOffset;
+            int score = negamax(board, depth, -INFINITY, INFINITY, 0);
+            // a stopped iteration is incomplete; keep the previous one
+            if (stopped) break;
+            completed = depth;
+            bestScore = score;
+            bestPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            bestMove = bestPv.length > 0 ? bestPv[0] : Move.NONE;
+            if (iterationListener != null) {
+                long millisSoFar = (System.nanoTime() - start) / 1_000_000L;
+                iterationListener.accept(new SearchResult(bestMove, bestScore, completed, nodes, millisSoFar, bestPv));
+            }
+            if (Math.abs(score) >= MATE - MAX_PLY) break;
+        }
+        if (completed == 0) {
+            // stopped before depth 1 finished: any legal move, reported as depth 0
+            bestMove = firstLegalMove(board);
+            bestPv = bestMove == Move.NONE ? new int[0] : new int[] {bestMove};
+        }
+        long millisSpent = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(bestMove, bestScore, completed, nodes, millisSpent, bestPv);
+    }
+
+    /**
+     * Registers a callback for the result of every completed iteration,
+     * e.g. to print progress. It runs on the searching thread.
+     *
+     * @param listener callback, or null for none
+     */
+    public void setIterationListener(Consumer<SearchResult> listener) {
+        this.iterationListener = listener;
+    }
+
+    /**
+     * Evaluates leaves with a neural network instead of the board's
+     * piece-square evaluation. The network's accumulator follows the
+     * searched board through {@link Board#setFeatureListener} for the
+     * duration of each search.
+     *
+     * @param network network, or null for {@link Board#evaluate()}
+     */
+    public void setNetwork(Network network) {
+        this.accumulator = network == null ? null : new Accumulator(network);
+    }
+
+    /**
+     * Turns the quiescence search on or off; off scores depth-0 nodes with
+     * the static evaluation. Meant for measuring it.
+     *
+     * @param enabled true (the default) to search captures at the leaves
+     */
+    public void setQuiescence(boolean enabled) {
+        this.quiescence = enabled;
+    }
+
+    /**
+     * Turns pruning of captures that lose material by static exchange
+     * evaluation, or gain too little to reach alpha, in the quiescence
+     * search on or off.
+     *
+     * @param enabled true (the default) to skip losing captures
+     */
+    public void setSeePruning(boolean enabled) {
+        this.seePruning = enabled;
+    }
+
+    /**
+     * Turns null-move pruning on or off.
+     *
+     * @param enabled true (the default) to prune with null moves
+     */
+    public void setNullMovePruning(boolean enabled) {
+        this.nullMovePruning = enabled;
+    }
+
+    /**
+     * Turns late-move reductions on or off.
+     *
+     * @param enabled true (the default) to reduce late quiet moves
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    /**
+     * Turns check extensions on or off.
+     *
+     * @param enabled true (the default) to search positions in check one ply deeper
+     */
+    public void setCheckExtensions(boolean enabled) {
+        this.checkExtensions = enabled;
+    }
+
+    /**
+     * Turns futility pruning near the leaves on or off.
+     *
+     * @param enabled true (the default) to skip hopeless quiet moves
+     */
+    public void setFutilityPruning(boolean enabled) {
+        this.futilityPruning = enabled;
+    }
+
+    /**
+     * Turns move ordering on or off; off tries the table's move first and
+     * the rest in generation order. Meant for measuring the ordering.
+     *
+     * @param enabled true (the default) to order moves
+     */
+    public void setMoveOrdering(boolean enabled) {
+        this.moveOrdering = enabled;
+    }
+
+    /** @return some legal move, or {@link Move#NONE} if there is none */
+    private int firstLegalMove(Board board) {
+        int[] list = rootMoves;
+        int n = board.generateMoves(list);
+        for (int i = 0; i < n; i++) {
+            if (board.tryMakeMove(list[i])) {
+                board.unmakeMove();
+                return list[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Asks a running search to finish as soon as possible. Safe to call from any thread. */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    /** @return nodes visited by the current or most recent search */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return the part of {@link #getNodes()} visited by the quiescence search */
+    public long getQuiescenceNodes() {
+        return qnodes;
+    }
+
+    /**
+     * Negamax alpha-beta.
+     *
+     * @return score from the side to move's point of view
+     */
+    private int negamax(Board board, int depth, int alpha, int beta, int ply) {
+        int side = board.getSideToMove();
+        boolean inCheck = isInCheck(board, side);
+        if (inCheck && checkExtensions) depth++;
+        if (depth <= 0 && quiescence) return quiesce(board, alpha, beta, ply);
+        pvLength[ply] = 0;
+        if (++nodes % CLOCK_INTERVAL == 0 && (stopFlag.get() || System.nanoTime() > deadline)) stopped = true;
+        if (nodes >= nodeLimit) stopped = true;
+        if (stopped) return 0;
+
+        if (ply > 0 && board.isRepetition()) return 0;
+        if (depth <= 0 || ply >= MAX_PLY - 1) return evaluate(board);
+
+        long key = board.getHash();
+        long entry = tt.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean mateBounds = Math.abs(alpha) >= MATE - MAX_PLY || Math.abs(beta) >= MATE - MAX_PLY;
+        int staticEval = inCheck ? -INFINITY : evaluate(board);
+
+        // null move: if even passing keeps us above beta, a real move will too
+        if (nullMovePruning && ply > 0 && !inCheck && !nullMoveAt[ply - 1] && depth >= 2
+                && !mateBounds && staticEval >= beta && board.hasNonPawnMaterial(side)) {
+            nullMoveAt[ply] = true;
+            board.makeNullMove();
+            int score = -negamax(board, depth - 1 - NULL_MOVE_REDUCTION, -beta, -beta + 1, ply + 1);
+            board.unmakeNullMove();
+            nullMoveAt[ply] = false;
+            if (stopped) return 0;
+            // a mate found after passing the turn is not proven, so claim only beta
+            if (score >= beta) return score >= MATE - MAX_PLY ? beta : score;
+        }
+        pvLength[ply] = 0;
+
+        boolean futile = futilityPruning && ply > 0 && !inCheck && !mateBounds && depth < FUTILITY_MARGIN.length
+                && staticEval + FUTILITY_MARGIN[depth] <= alpha;
+
+        MovePicker picker = pickers[ply];
+        int[] killer = killers[ply];
+        picker.init(board, hashMove, killer[0], killer[1], history, moveOrdering);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY, bestMove = Move.NONE, legal = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+            if (!board.tryMakeMove(move)) continue;
+            legal++;
+            boolean givesCheck = isInCheck(board, side ^ 1);
+            if (futile && quiet && !givesCheck && legal > 1) {
+                board.unmakeMove();
+                continue;
+            }
+
+            int reduction = 0;
+            if (lateMoveReductions && quiet && legal > LMR_FULL_DEPTH_MOVES && depth >= 3 && !inCheck && !givesCheck
+                    && move != killer[0] && move != killer[1]) {
+                reduction = legal > 2 * LMR_FULL_DEPTH_MOVES && depth >= 6 ? 2 : 1;
+                if (history[side * 4096 + Move.from(move) * 64 + Move.to(move)] >= LMR_HISTORY_GOOD) reduction--;
+            }
+            int score;
+            if (reduction > 0) {
+                score = -negamax(board, depth - 1 - reduction, -alpha - 1, -alpha, ply + 1);
+                // a reduced move that beats alpha gets the full search
+                if (score > alpha && !stopped) score = -negamax(board, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(board, depth - 1, -beta, -alpha, ply + 1);
+            }
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (quiet) rememberCutoff(side, move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) return inCheck ? -MATE + ply : 0; // checkmate or stalemate
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                  : bestScore > originalAlpha ? TranspositionTable.EXACT
+                  : TranspositionTable.UPPER;
+        tt.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /** @return true if {@code side}'s king is attacked */
+    private static boolean isInCheck(Board board, int side) {
+        int king = board.getKingSquare(side);
+        return king >= 0 && board.isSquareAttacked(king, side ^ 1);
+    }
+
+    /**
+     * Quiescence search: the side to move may stand pat on the static
+     * evaluation or try captures, so the score only counts positions
+     * where no profitable capture is left. Captures that lose material by
+     * static exchange evaluation, or whose gain still leaves the score
+     * well below alpha, are skipped, which keeps the tree small.
+     *
+     * @return score from the side to move's point of view
+     */
+    private int quiesce(Board board, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        qnodes++;
+        if (++nodes % CLOCK_INTERVAL == 0 && (stopFlag.get() || System.nanoTime() > deadline)) stopped = true;
+        if (nodes >= nodeLimit) stopped = true;
+        if (stopped) return 0;
+
+        int standPat = evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        MovePicker picker = pickers[ply];
+        picker.initCaptures(board);
+        int bestScore = standPat;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            if (seePruning) {
+                // skip captures that lose material or cannot lift the score near alpha
+                int gain = board.see(move);
+                if (gain < 0 || standPat + gain + DELTA_MARGIN <= alpha) continue;
+            }
+            if (!board.tryMakeMove(move)) continue;
+            int score = -quiesce(board, -beta, -alpha, ply + 1);
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /** Makes a quiet move that caused a beta cutoff a killer of its ply and rewards its history. */
+    private void rememberCutoff(int side, int move, int depth, int ply) {
+        int[] k = killers[ply];
+        if (k[0] != move) {
+            k[1] = k[0];
+            k[0] = move;
+        }
+        int i = side * 4096 + Move.from(move) * 64 + Move.to(move);
+        history[i] += depth * depth;
+        if (history[i] > HISTORY_LIMIT) ageHistory();
+    }
+
+    /** Halves every history score so recent cutoffs outweigh old ones. */
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) history[i] >>= 1;
+    }
+
+    /** Records {@code move} followed by the child's variation as the PV at {@code ply}. */
+    private void updatePv(int ply, int move) {
+        int[] row = pvTable[ply], child = pvTable[ply + 1];
+        row[0] = move;
+        int len = pvLength[ply + 1];
+        System.arraycopy(child, 0, row, 1, len);
+        pvLength[ply] = len + 1;
+    }
+
+    /** @return static score from the side to move's point of view */
+    private int evaluate(Board board) {
+        return accumulator != null ? accumulator.evaluate(board.getSideToMove()) : board.evaluate();
+    }
+
+    /** Converts a mate score relative to this node into one relative to the stored position. */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    /** Inverse of {@link #toTable}. */
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
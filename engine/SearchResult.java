@@ -0,0 +1,86 @@
+package engine;
+
+import board.Move;
+
+/**
+ * Outcome of a {@link Search}: the chosen move, its score from the side
+ * to move's point of view, and the principal variation behind it.
+ */
+public class SearchResult {
+
+    /** Best move found, or {@link Move#NONE} if the side to move has no legal move. */
+    public final int move;
+
+    /** Score in centipawns; mate scores are near {@link Search#MATE}. */
+    public final int score;
+
+    /** Deepest fully completed iteration, or 0 if the search was stopped before depth 1 finished. */
+    public final int depth;
+
+    /** Nodes visited over all iterations. */
+    public final long nodes;
+
+    /** Wall-clock time spent, in milliseconds. */
+    public final long millis;
+
+    /** Principal variation starting with {@link #move}. */
+    private final int[] pv;
+
+    /**
+     * Creates a result.
+     *
+     * @param move   best move
+     * @param score  score of the best move
+     * @param depth  completed depth
+     * @param nodes  nodes searched
+     * @param millis time spent
+     * @param pv     principal variation (copied)
+     */
+    public SearchResult(int move, int score, int depth, long nodes, long millis, int[] pv) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.pv = pv.clone();
+    }
+
+    /** @return principal variation as packed moves */
+    public int[] getPv() {
+        return pv.clone();
+    }
+
+    /** @return true if the score announces a forced mate for either side */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return full moves until mate, negative when the side to move is
+     *         being mated; only meaningful if {@link #isMate()}
+     */
+    public int mateIn() {
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    /** @return nodes per second over the whole search */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, millis);
+    }
+
+    /** @return summary such as {@code depth 5 score 35 nodes 41230 pv e2e4 e7e5} */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth ").append(depth);
+        if (isMate()) {
+            sb.append(" mate ").append(mateIn());
+        } else {
+            sb.append(" score ").append(score);
+        }
+        sb.append(" nodes ").append(nodes).append(" time ").append(millis).append(" pv");
+        for (int m : pv) sb.append(' ').append(Move.toString(m));
+        return sb.toString();
+    }
+}
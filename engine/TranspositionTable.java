@@ -0,0 +1,209 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size transposition table keyed by a 64-bit position hash such as
+ * {@link board.Board#getHash()}.
+ * <p>
+ * Storage is one preallocated {@code long[]} holding a power-of-two number
+ * of buckets. Each bucket has two entries: a depth-preferred slot that
+ * keeps the deepest result of the current search, and an always-replace
+ * slot for everything else. Every entry is two longs, {@code key ^ data}
+ * and {@code data}, where {@code data} packs the best move, score, depth,
+ * bound and search generation.
+ * <p>
+ * Reads and writes take no locks. A reader accepts an entry only if XOR-ing
+ * its two words gives back the probed key. An entry torn by a concurrent
+ * write therefore looks like a miss instead of returning mixed data, so
+ * many search threads can share one table.
+ */
+public class TranspositionTable {
+
+    /** Entry bound: score is exact. */
+    public static final int EXACT = 1;
+
+    /** Entry bound: score is a lower bound (fail high). */
+    public static final int LOWER = 2;
+
+    /** Entry bound: score is an upper bound (fail low). */
+    public static final int UPPER = 3;
+
+    /** Longs per bucket: two entries of (key ^ data, data). */
+    private static final int BUCKET_LONGS = 4;
+
+    /** Bytes per bucket. */
+    private static final int BUCKET_BYTES = BUCKET_LONGS * Long.BYTES;
+
+    /** Bucket storage. */
+    private final long[] table;
+
+    /** Bucket count minus one; bucket count is a power of two. */
+    private final int bucketMask;
+
+    /** Search generation, used to age out entries from earlier searches. */
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Creates a table using at most {@code megabytes} of memory, rounded
+     * down to a power-of-two number of buckets.
+     *
+     * @param megabytes memory budget, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Table size must be at least 1 MB");
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BUCKET_BYTES);
+        // Java arrays are int-indexed
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / BUCKET_LONGS));
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key position hash
+     * @return packed entry data (read with {@link #move}, {@link #score},
+     *         {@link #depth}, {@link #bound}), or 0 on a miss
+     */
+    public long probe(long key) {
+        int base = ((int) key & bucketMask) * BUCKET_LONGS;
+        boolean occupied = false;
+        for (int i = base; i < base + BUCKET_LONGS; i += 2) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+            occupied |= data != 0;
+        }
+        if (occupied) collisions.increment();
+        else misses.increment();
+        return 0L;
+    }
+
+    /**
+     * Stores a search result.
+     *
+     * @param key   position hash
+     * @param move  best move found (0 if none)
+     * @param score score in the 16-bit signed range
+     * @param depth remaining search depth, 0..255
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int gen = generation;
+        long data = (move & 0xFFFFL)
+                  | ((score & 0xFFFFL) << 16)
+                  | ((depth & 0xFFL) << 32)
+                  | ((long) bound << 40)
+                  | ((gen & 0x3FL) << 42);
+        int base = ((int) key & bucketMask) * BUCKET_LONGS;
+
+        // depth-preferred slot: take it for the same position, a stale
+        // entry from an older search, or a result at least as deep
+        long old = table[base + 1];
+        boolean samePosition = (table[base] ^ old) == key;
+        int slot = base + 2;
+        if (old == 0 || samePosition || generation(old) != gen || depth >= depth(old)) {
+            slot = base;
+            // keep the best move of an earlier visit if this one has none
+            if (samePosition && move == 0) data |= old & 0xFFFFL;
+        }
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+        stores.increment();
+    }
+
+    /** Starts a new search generation so older entries become replaceable. */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /** Empties the table and resets the statistics. */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    /** @return best move of a packed entry (0 if none) */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /** @return score of a packed entry */
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    /** @return depth of a packed entry */
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    /** @return bound of a packed entry ({@link #EXACT}, {@link #LOWER} or {@link #UPPER}) */
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 42) & 0x3F;
+    }
+
+    /** @return configured capacity in entries */
+    public long capacity() {
+        return table.length / 2;
+    }
+
+    /** @return probes that found the position */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return probes that found an empty bucket */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return probes that found a bucket holding other positions */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /** @return number of entries written */
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Estimates how full the table is from the first 1000 buckets.
+     *
+     * @return filled entries per thousand
+     */
+    public int usagePermille() {
+        int sample = Math.min(1000, bucketMask + 1), used = 0;
+        for (int b = 0; b < sample; b++) {
+            if (table[b * BUCKET_LONGS + 1] != 0) used++;
+            if (table[b * BUCKET_LONGS + 3] != 0) used++;
+        }
+        return used * 1000 / (sample * 2);
+    }
+
+    /** @return one-line summary of size and hit, miss and collision counts */
+    @Override
+    public String toString() {
+        long h = getHits(), m = getMisses(), c = getCollisions();
+        long probes = Math.max(1, h + m + c);
+        return String.format("TT %,d entries  hits %,d (%.1f%%)  misses %,d  collisions %,d  stores %,d  full %d/1000",
+                capacity(), h, 100.0 * h / probes, m, c, getStores(), usagePermille());
+    }
+}
@@ -1,7 +1,10 @@
 package game;
 
 import board.Board;
+import board.Move;
 import board.Position;
+import engine.Search;
+import engine.SearchResult;
 import pieces.Piece;
 import java.util.Scanner;
 
@@ -22,6 +25,33 @@ public class Game {
     /** Current turn ("white" or "black"). */
     private String currentTurn;
 
+    /** Engine used by the 'go' command; created on first use. */
+    private Search search;
+
+    /** Thinking time per computer move, in milliseconds. */
+    private static final long ENGINE_MILLIS = 2000;
+
+    /** True once a side has been checkmated. */
+    private boolean over;
+
+    /** Outcome of {@link #submitMove}. */
+    public enum MoveResult {
+        /** Move played; the game goes on. */
+        OK,
+        /** Move played and the opponent is in check. */
+        CHECK,
+        /** Move played and the opponent is checkmated; the game is over. */
+        CHECKMATE,
+        /** No piece stands on the origin square. */
+        NO_PIECE,
+        /** The piece belongs to the side not on move. */
+        WRONG_TURN,
+        /** The piece cannot move there, or the move leaves its king in check. */
+        ILLEGAL,
+        /** The game already ended. */
+        GAME_OVER
+    }
+
     public Game(Board board, Player white, Player black) {
         this.board = board;
         this.white = white;
@@ -39,48 +69,109 @@ public class Game {
         System.out.println("Game over.");
     }
 
+    /** @return the board this game is played on */
+    public Board getBoard() {
+        return board;
+    }
+
+    /** @return side to move, "white" or "black" */
+    public String getCurrentTurn() {
+        return currentTurn;
+    }
+
+    /** @return true once a side has been checkmated */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Plays a move for the side to move after validating it on the board.
+     * On success the turn passes to the other side.
+     *
+     * @param from start square
+     * @param to   destination square
+     * @return whether the move was played, and if so whether it gives
+     *         check or mate
+     */
+    public MoveResult submitMove(Position from, Position to) {
+        return submitMove(from, to, -1);
+    }
+
+    /**
+     * Plays a move as {@link #submitMove(Position, Position)} does,
+     * choosing the piece a promoting pawn becomes.
+     *
+     * @param from      start square
+     * @param to        destination square
+     * @param promotion piece type to promote to, or -1 for a queen; see
+     *                  {@link Board#movePiece(Position, Position, int)}
+     * @return whether the move was played, and if so whether it gives
+     *         check or mate
+     */
+    public MoveResult submitMove(Position from, Position to, int promotion) {
+        if (over) return MoveResult.GAME_OVER;
+        Piece p = board.getPiece(from);
+        if (p == null) return MoveResult.NO_PIECE;
+        if (!p.getColor().equals(currentTurn)) return MoveResult.WRONG_TURN;
+        if (!board.movePiece(from, to, promotion)) return MoveResult.ILLEGAL;
+
+        Board.Color nextColor = currentTurn.equals("white") ? Board.Color.BLACK : Board.Color.WHITE;
+        currentTurn = currentTurn.equals("white") ? "black" : "white";
+        if (board.isCheckmate(nextColor)) {
+            over = true;
+            return MoveResult.CHECKMATE;
+        }
+        return board.isCheck(nextColor) ? MoveResult.CHECK : MoveResult.OK;
+    }
+
     /** Runs the interactive CLI loop (same behavior you had in Main). */
   /** Runs the interactive CLI loop (same behavior you had in Main). */
 public void runCli() {
     Scanner sc = new Scanner(System.in);
-    System.out.println("Type moves like: E2 E4   |  'board' to reprint  |  'q' to quit");
+    System.out.println("Type moves like: E2 E4   |  'go' for a computer move  |  'board' to reprint  |  'q' to quit");
     while (true) {
         System.out.print("[" + currentTurn + "] move> ");
         String line = sc.nextLine().trim();
         if (line.equalsIgnoreCase("q")) break;
         if (line.equalsIgnoreCase("board")) { board.display(); continue; }
-        if (!line.matches("(?i)^[A-H][1-8]\\s+[A-H][1-8]$")) {
+        Position from, to;
+        int promotion = -1;
+        if (line.equalsIgnoreCase("go")) {
+            if (search == null) search = new Search();
+            SearchResult result = search.search(board, Search.MAX_PLY, ENGINE_MILLIS);
+            if (result.move == Move.NONE) { System.out.println("No legal move."); continue; }
+            System.out.println("Computer plays " + Move.toString(result.move).toUpperCase() + "  (" + result + ")");
+            from = Position.of(Move.from(result.move));
+            to   = Position.of(Move.to(result.move));
+            if (Move.isPromotion(result.move)) promotion = Move.promotionType(result.move);
+        } else if (line.matches("(?i)^[A-H][1-8]\\s+[A-H][1-8]$")) {
+            String[] parts = line.split("\\s+");
+            from = algebraic(parts[0].toUpperCase());
+            to   = algebraic(parts[1].toUpperCase());
+        } else {
             System.out.println("Bad format. Example: E2 E4");
             continue;
         }
-        String[] parts = line.split("\\s+");
-        Position from = algebraic(parts[0].toUpperCase());
-        Position to   = algebraic(parts[1].toUpperCase());
-        Piece p = board.getPiece(from);
-        if (p == null) { System.out.println("No piece at " + parts[0].toUpperCase()); continue; }
-        // Use the getter instead of toString parsing
-        String colorAtFrom = p.getColor(); // "white" or "black"
-        if (!colorAtFrom.equals(currentTurn)) {
+        String mover = currentTurn;
+        MoveResult outcome = submitMove(from, to, promotion);
+        if (outcome == MoveResult.NO_PIECE) { System.out.println("No piece at " + line.substring(0, 2).toUpperCase()); continue; }
+        if (outcome == MoveResult.WRONG_TURN) {
             System.out.println("It's " + currentTurn + "'s turn.");
             continue;
         }
-        if (!board.movePiece(from, to)) {
+        if (outcome == MoveResult.ILLEGAL) {
             System.out.println("Illegal or blocked move.");
             continue;
         }
         board.display();
         
         //Check for check/checkmate after the move
-        Board.Color nextColor = currentTurn.equals("white") ? Board.Color.BLACK : Board.Color.WHITE;
-        if (board.isCheckmate(nextColor)) {
-            System.out.println("CHECKMATE! " + currentTurn + " wins!");
+        if (outcome == MoveResult.CHECKMATE) {
+            System.out.println("CHECKMATE! " + mover + " wins!");
             break;
-        } else if (board.isCheck(nextColor)) {
+        } else if (outcome == MoveResult.CHECK) {
             System.out.println("CHECK!");
         }
-        
-        
-        currentTurn = currentTurn.equals("white") ? "black" : "white";
     }
     end();
 }
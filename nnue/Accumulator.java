@@ -0,0 +1,134 @@
+package nnue;
+
+import board.Board;
+import board.FeatureListener;
+
+/**
+ * Hidden-layer state of a {@link Network} for one board, kept up to date
+ * as pieces change.
+ * <p>
+ * Once {@link #attach attached}, the board reports every added, removed
+ * and moved piece, and the accumulator adds or subtracts that piece's
+ * weight rows for both perspectives; a quiet move costs one pass over the
+ * hidden layer, and undoing it another. {@link #evaluate} then only runs
+ * the output layer. The hidden sums are {@code int16}, like the weights
+ * (a network's quantisation must keep them in that range), and the loops
+ * over them are the {@link Kernels} in use: Vector API code when the JVM
+ * has {@code jdk.incubator.vector}, plain loops otherwise
+ * ({@link #getKernelName} tells which).
+ * <p>
+ * Features are indexed {@code piece * 64 + square} with ranks counted
+ * from the perspective's own side: white sees a1 as square 0, black sees
+ * a8 as square 0 and its own pieces as pieces 0..5.
+ */
+public final class Accumulator implements FeatureListener {
+
+    private final Network net;
+    private final int hidden;
+
+    private final Kernels kernels = Kernels.INSTANCE;
+
+    /** Hidden sums from white's perspective. */
+    private final short[] white;
+
+    /** Hidden sums from black's perspective. */
+    private final short[] black;
+
+    private Board board;
+
+    /**
+     * Creates an accumulator, not yet attached to a board.
+     *
+     * @param net network to evaluate
+     */
+    public Accumulator(Network net) {
+        this.net = net;
+        this.hidden = net.hidden;
+        this.white = new short[hidden];
+        this.black = new short[hidden];
+    }
+
+    /** @return the kernels this JVM uses, e.g. {@code vector (256-bit)} or {@code scalar} */
+    public static String getKernelName() {
+        return Kernels.INSTANCE.name();
+    }
+
+    /**
+     * Starts following a board: reads its pieces and registers as its
+     * {@link FeatureListener}. Detaches from any previous board.
+     *
+     * @param board board to follow
+     */
+    public void attach(Board board) {
+        detach();
+        this.board = board;
+        refresh(board);
+        board.setFeatureListener(this);
+    }
+
+    /** Stops following the attached board, if any. */
+    public void detach() {
+        if (board != null) board.setFeatureListener(null);
+        board = null;
+    }
+
+    /**
+     * Recomputes both perspectives from scratch.
+     *
+     * @param board position to read
+     */
+    public void refresh(Board board) {
+        System.arraycopy(net.featureBias, 0, white, 0, hidden);
+        System.arraycopy(net.featureBias, 0, black, 0, hidden);
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < board.getPieceCount(side); i++) {
+                int sq = board.getPieceSquare(side, i);
+                pieceAdded(side * 6 + board.getPieceType(sq), sq);
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(int piece, int square) {
+        short[] rows = net.featureWeights;
+        kernels.add(white, rows, whiteFeature(piece, square) * hidden);
+        kernels.add(black, rows, blackFeature(piece, square) * hidden);
+    }
+
+    @Override
+    public void pieceRemoved(int piece, int square) {
+        short[] rows = net.featureWeights;
+        kernels.subtract(white, rows, whiteFeature(piece, square) * hidden);
+        kernels.subtract(black, rows, blackFeature(piece, square) * hidden);
+    }
+
+    @Override
+    public void pieceMoved(int piece, int from, int to) {
+        short[] rows = net.featureWeights;
+        kernels.addSubtract(white, rows, whiteFeature(piece, to) * hidden, whiteFeature(piece, from) * hidden);
+        kernels.addSubtract(black, rows, blackFeature(piece, to) * hidden, blackFeature(piece, from) * hidden);
+    }
+
+    /**
+     * Runs the output layer.
+     *
+     * @param sideToMove 0 = white, 1 = black
+     * @return score in centipawns from the side to move's point of view
+     */
+    public int evaluate(int sideToMove) {
+        short[] us = sideToMove == 0 ? white : black;
+        short[] them = sideToMove == 0 ? black : white;
+        int sum = kernels.dot(us, net.outputUs) + kernels.dot(them, net.outputThem);
+        return (int) ((long) (sum + net.outputBias) * Network.SCALE / (Network.QA * Network.QB));
+    }
+
+    /** Board squares count from a8; white's features count from a1. */
+    private static int whiteFeature(int piece, int square) {
+        return piece * 64 + (square ^ 56);
+    }
+
+    /** Black's features swap the colours, and black's own side starts at a8. */
+    private static int blackFeature(int piece, int square) {
+        return (piece < 6 ? piece + 6 : piece - 6) * 64 + square;
+    }
+}
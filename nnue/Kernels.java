@@ -0,0 +1,45 @@
+package nnue;
+
+/**
+ * Inner loops of the network over {@code int16} data: adding and
+ * subtracting weight rows into an accumulator, and the clipped dot
+ * product of the output layer, summed in {@code int32}.
+ * <p>
+ * {@link #INSTANCE} is picked once, when the class loads:
+ * {@link VectorKernels}, written with {@code jdk.incubator.vector}, if the
+ * JVM was started with {@code --add-modules jdk.incubator.vector}, and
+ * {@link ScalarKernels} otherwise. Setting the system property
+ * {@code nnue.scalar} to {@code true} forces the scalar loops, e.g. to
+ * time them against the vector ones.
+ */
+abstract class Kernels {
+
+    /** Kernels in use for this JVM. */
+    static final Kernels INSTANCE = select();
+
+    /** @return short description for benchmark output, e.g. {@code vector (512-bit)} */
+    abstract String name();
+
+    /** Adds {@code acc.length} weights starting at {@code offset} to {@code acc}. */
+    abstract void add(short[] acc, short[] weights, int offset);
+
+    /** Subtracts {@code acc.length} weights starting at {@code offset} from {@code acc}. */
+    abstract void subtract(short[] acc, short[] weights, int offset);
+
+    /** Adds the row at {@code plus} and subtracts the row at {@code minus} in one pass. */
+    abstract void addSubtract(short[] acc, short[] weights, int plus, int minus);
+
+    /** @return sum over {@code i} of {@code clamp(acc[i], 0, QA) * weights[i]} */
+    abstract int dot(short[] acc, short[] weights);
+
+    private static Kernels select() {
+        if (!Boolean.getBoolean("nnue.scalar")) {
+            try {
+                return (Kernels) Class.forName("nnue.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // jdk.incubator.vector is not in the module graph
+            }
+        }
+        return new ScalarKernels();
+    }
+}
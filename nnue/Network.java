@@ -0,0 +1,193 @@
+package nnue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Weights of a small efficiently updatable neural network (NNUE) for
+ * evaluating positions, evaluated through an {@link Accumulator}.
+ * <p>
+ * The network has 768 inputs (12 pieces times 64 squares) seen from each
+ * side's perspective, one hidden layer of {@code H} neurons shared by
+ * both perspectives, and one output fed by the clipped hidden layer of
+ * the side to move followed by that of the other side. Weights are
+ * quantised: hidden values are in units of 1/{@link #QA}, output weights
+ * in units of 1/{@link #QB}, and the output is scaled by {@link #SCALE}
+ * to centipawns.
+ * <p>
+ * File layout, all little-endian:
+ * <pre>
+ * int   magic 0x4E4E4243 ("CBNN")
+ * int   version 1
+ * int   hidden size H
+ * short featureWeights[768][H]
+ * short featureBias[H]
+ * short outputWeights[2H]     side to move first
+ * int   outputBias
+ * </pre>
+ * {@link #load} maps the file and copies the weights in bulk into
+ * {@code short} arrays, keeping their {@code int16} width for the
+ * {@link Kernels}; the feature weights are one flat array with the row
+ * of feature {@code f} starting at {@code f * H}.
+ */
+public final class Network {
+
+    /** Number of inputs per perspective: piece {@code side * 6 + type} times 64 squares. */
+    public static final int INPUTS = 768;
+
+    /** Hidden-layer activations are clipped to 0..QA. */
+    public static final int QA = 255;
+
+    /** Output weight quantisation. */
+    public static final int QB = 64;
+
+    /** Output scale to centipawns. */
+    public static final int SCALE = 400;
+
+    private static final int MAGIC = 0x4E4E4243;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    final int hidden;
+
+    /** Hidden-layer weights, {@code INPUTS} rows of {@code hidden} values back to back. */
+    final short[] featureWeights;
+    final short[] featureBias;
+
+    /** Output weights for the side to move's hidden layer. */
+    final short[] outputUs;
+
+    /** Output weights for the other side's hidden layer. */
+    final short[] outputThem;
+    final int outputBias;
+
+    private Network(int hidden, short[] featureWeights, short[] featureBias, short[] outputUs, short[] outputThem,
+                    int outputBias) {
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.featureBias = featureBias;
+        this.outputUs = outputUs;
+        this.outputThem = outputThem;
+        this.outputBias = outputBias;
+    }
+
+    /** @return number of hidden neurons per perspective */
+    public int getHiddenSize() {
+        return hidden;
+    }
+
+    /**
+     * Loads a network file through a read-only memory mapping.
+     *
+     * @param file network file
+     * @return the network
+     * @throws IOException if the file cannot be read or is not a network of this format
+     */
+    public static Network load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a network file: " + file);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            int magic = map.getInt(), version = map.getInt(), hidden = map.getInt();
+            if (magic != MAGIC) throw new IOException("Not a network file: " + file);
+            if (version != VERSION) throw new IOException("Unsupported network version " + version + ": " + file);
+            if (hidden < 1 || hidden > 4096 || size != fileSize(hidden)) {
+                throw new IOException("Network file has the wrong size for " + hidden + " hidden neurons: " + file);
+            }
+
+            ShortBuffer weights = map.asShortBuffer();
+            short[] featureWeights = read(weights, INPUTS * hidden);
+            short[] featureBias = read(weights, hidden);
+            short[] outputUs = read(weights, hidden);
+            short[] outputThem = read(weights, hidden);
+            map.position(HEADER_BYTES + 2 * weights.position());
+            return new Network(hidden, featureWeights, featureBias, outputUs, outputThem, map.getInt());
+        }
+    }
+
+    /** Reads {@code n} shorts. */
+    private static short[] read(ShortBuffer in, int n) {
+        short[] values = new short[n];
+        in.get(values);
+        return values;
+    }
+
+    /**
+     * Writes the network in the format {@link #load} reads.
+     *
+     * @param file destination, replaced if it exists
+     * @throws IOException if writing fails
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) fileSize(hidden)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(hidden);
+        write(buf, featureWeights);
+        write(buf, featureBias);
+        write(buf, outputUs);
+        write(buf, outputThem);
+        buf.putInt(outputBias).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    private static void write(ByteBuffer out, short[] values) {
+        out.asShortBuffer().put(values);
+        out.position(out.position() + 2 * values.length);
+    }
+
+    /**
+     * Creates a network with small random weights, for benchmarks and for
+     * checking the file format. It does not play sensibly.
+     *
+     * @param hidden hidden neurons per perspective
+     * @param seed   random seed
+     * @return the network
+     */
+    public static Network random(int hidden, long seed) {
+        Random random = new Random(seed);
+        short[] featureWeights = new short[INPUTS * hidden];
+        short[] featureBias = new short[hidden];
+        short[] outputUs = new short[hidden], outputThem = new short[hidden];
+        for (int i = 0; i < featureWeights.length; i++) featureWeights[i] = (short) (random.nextInt(65) - 32);
+        for (int i = 0; i < hidden; i++) {
+            featureBias[i] = (short) random.nextInt(QA);
+            outputUs[i] = (short) (random.nextInt(129) - 64);
+            outputThem[i] = (short) (random.nextInt(129) - 64);
+        }
+        return new Network(hidden, featureWeights, featureBias, outputUs, outputThem, 0);
+    }
+
+    private static long fileSize(int hidden) {
+        return HEADER_BYTES + 2L * (INPUTS * hidden + hidden + 2 * hidden) + 4;
+    }
+
+    /**
+     * Writes a random network file.
+     * <p>
+     * Usage: {@code java nnue.Network <file> [hidden] [seed]}
+     *
+     * @param args output file, hidden size (default 256) and seed (default 1)
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java nnue.Network <file> [hidden] [seed]");
+            return;
+        }
+        int hidden = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        random(hidden, seed).save(Paths.get(args[0]));
+        System.out.println("Wrote " + hidden + "-neuron random network to " + args[0]);
+    }
+}
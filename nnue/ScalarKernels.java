@@ -0,0 +1,37 @@
+package nnue;
+
+/**
+ * Plain-loop {@link Kernels}, used when {@code jdk.incubator.vector} is
+ * not available.
+ */
+final class ScalarKernels extends Kernels {
+
+    @Override
+    String name() {
+        return "scalar";
+    }
+
+    @Override
+    void add(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) acc[i] += weights[offset + i];
+    }
+
+    @Override
+    void subtract(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) acc[i] -= weights[offset + i];
+    }
+
+    @Override
+    void addSubtract(short[] acc, short[] weights, int plus, int minus) {
+        for (int i = 0; i < acc.length; i++) acc[i] += weights[plus + i] - weights[minus + i];
+    }
+
+    @Override
+    int dot(short[] acc, short[] weights) {
+        int sum = 0;
+        for (int i = 0; i < acc.length; i++) {
+            sum += Math.min(Math.max(acc[i], 0), Network.QA) * weights[i];
+        }
+        return sum;
+    }
+}
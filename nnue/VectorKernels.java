@@ -0,0 +1,79 @@
+package nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link Kernels} written with the incubating Vector API, at the widest
+ * vector shape the CPU supports. Row updates work on {@code int16} lanes;
+ * the dot product clips in {@code int16}, then widens each half of the
+ * lanes to {@code int32} before multiplying, so products cannot overflow.
+ * Loaded only through {@link Kernels#INSTANCE}, which falls back to
+ * {@link ScalarKernels} when the module is missing.
+ */
+final class VectorKernels extends Kernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    /** Same vector size as {@link #SHORTS}, so each holds half its lanes. */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    String name() {
+        return "vector (" + SHORTS.vectorBitSize() + "-bit)";
+    }
+
+    @Override
+    void add(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) acc[i] += weights[offset + i];
+    }
+
+    @Override
+    void subtract(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) acc[i] -= weights[offset + i];
+    }
+
+    @Override
+    void addSubtract(short[] acc, short[] weights, int plus, int minus) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, plus + i))
+                    .sub(ShortVector.fromArray(SHORTS, weights, minus + i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) acc[i] += weights[plus + i] - weights[minus + i];
+    }
+
+    @Override
+    int dot(short[] acc, short[] weights) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector v = ShortVector.fromArray(SHORTS, acc, i).max((short) 0).min((short) Network.QA);
+            ShortVector w = ShortVector.fromArray(SHORTS, weights, i);
+            for (int part = 0; part < 2; part++) {
+                IntVector a = (IntVector) v.convertShape(VectorOperators.S2I, INTS, part);
+                IntVector b = (IntVector) w.convertShape(VectorOperators.S2I, INTS, part);
+                sum = sum.add(a.mul(b));
+            }
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < acc.length; i++) total += Math.min(Math.max(acc[i], 0), Network.QA) * weights[i];
+        return total;
+    }
+}
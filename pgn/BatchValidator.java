@@ -0,0 +1,194 @@
+package pgn;
+
+import board.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Validates many games in parallel on a work-stealing fork-join pool.
+ * <p>
+ * The calling thread reads games and hands them to the pool in chunks;
+ * each chunk splits in half until it is small enough to replay, so idle
+ * workers steal the other halves. Every worker keeps one {@link Board}
+ * and move buffer of its own, and results go into a shared
+ * {@link ValidationReport}. Only a few chunks are in flight at a time,
+ * so memory stays bounded when reading from large files.
+ */
+public class BatchValidator {
+
+    /** Games handed to the pool per submitted chunk. */
+    private static final int CHUNK_SIZE = 256;
+
+    /** Games a task replays itself instead of splitting further. */
+    private static final int LEAF_SIZE = 8;
+
+    /** One board per worker thread. */
+    private static final ThreadLocal<Board> BOARD = ThreadLocal.withInitial(Board::new);
+
+    /** One move buffer per worker thread. */
+    private static final ThreadLocal<int[]> MOVES = ThreadLocal.withInitial(() -> new int[Board.MAX_MOVES]);
+
+    /** Pool that replays the games. */
+    private final ForkJoinPool pool;
+
+    /** Most chunks submitted but not yet finished. */
+    private final int maxInFlight;
+
+    /**
+     * Creates a validator that runs on a given pool.
+     *
+     * @param pool fork-join pool to replay games on
+     */
+    public BatchValidator(ForkJoinPool pool) {
+        this.pool = pool;
+        this.maxInFlight = pool.getParallelism() * 4;
+    }
+
+    /**
+     * Validates games from an iterator. Each game must be a separate
+     * object, as it is replayed on another thread after the iterator
+     * has moved on.
+     *
+     * @param games games to validate
+     * @return totals and timing
+     */
+    public ValidationReport validate(Iterator<PgnGame> games) {
+        ValidationReport report = new ValidationReport();
+        long start = System.nanoTime();
+        ArrayDeque<ForkJoinTask<?>> inFlight = new ArrayDeque<>();
+        List<PgnGame> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (games.hasNext()) {
+            chunk.add(games.next());
+            if (chunk.size() == CHUNK_SIZE) {
+                submit(chunk, report, inFlight);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) submit(chunk, report, inFlight);
+        while (!inFlight.isEmpty()) inFlight.poll().join();
+        report.setWallNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Validates every game in a list of PGN files, read one after another
+     * by the calling thread while the pool replays earlier games.
+     *
+     * @param files PGN files
+     * @return totals and timing over all files
+     * @throws IOException if a file cannot be read
+     */
+    public ValidationReport validate(List<Path> files) throws IOException {
+        ValidationReport report = new ValidationReport();
+        long start = System.nanoTime();
+        ArrayDeque<ForkJoinTask<?>> inFlight = new ArrayDeque<>();
+        List<PgnGame> chunk = new ArrayList<>(CHUNK_SIZE);
+        PgnGame game = new PgnGame();
+        for (Path file : files) {
+            try (PgnReader reader = PgnReader.open(file)) {
+                while (reader.next(game)) {
+                    chunk.add(new PgnGame(game));
+                    if (chunk.size() == CHUNK_SIZE) {
+                        submit(chunk, report, inFlight);
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+            }
+        }
+        if (!chunk.isEmpty()) submit(chunk, report, inFlight);
+        while (!inFlight.isEmpty()) inFlight.poll().join();
+        report.setWallNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /** Submits a chunk, first waiting for the oldest one if too many are running. */
+    private void submit(List<PgnGame> chunk, ValidationReport report, ArrayDeque<ForkJoinTask<?>> inFlight) {
+        if (inFlight.size() >= maxInFlight) inFlight.poll().join();
+        PgnGame[] games = chunk.toArray(new PgnGame[0]);
+        inFlight.add(pool.submit(new ReplayTask(games, 0, games.length, report)));
+    }
+
+    /** Replays a range of games, splitting it while it is large. */
+    private static class ReplayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PgnGame[] games;
+        private final int from;
+        private final int to;
+        private final ValidationReport report;
+
+        ReplayTask(PgnGame[] games, int from, int to, ValidationReport report) {
+            this.games = games;
+            this.from = from;
+            this.to = to;
+            this.report = report;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReplayTask(games, from, mid, report), new ReplayTask(games, mid, to, report));
+                return;
+            }
+            Board board = BOARD.get();
+            int[] moves = MOVES.get();
+            for (int i = from; i < to; i++) {
+                PgnGame game = games[i];
+                long t0 = System.nanoTime();
+                PgnGame.Status status = game.replay(board, moves);
+                long nanos = System.nanoTime() - t0;
+                if (status == PgnGame.Status.ILLEGAL) {
+                    report.record(status, Math.max(game.getFailedPly(), 0), nanos);
+                    report.addFailure(game.describeFailure(board));
+                } else {
+                    report.record(status, game.getMoveCount(), nanos);
+                }
+                games[i] = null;   // let the game be collected once replayed
+            }
+        }
+    }
+
+    /**
+     * Validates PGN files in parallel and prints the report.
+     * <p>
+     * Usage: {@code java pgn.BatchValidator [threads <n>] <file.pgn>...}
+     *
+     * @param args optional {@code threads n}, then PGN files
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("threads") && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+            else files.add(Paths.get(args[i]));
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: java pgn.BatchValidator [threads <n>] <file.pgn>...");
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ValidationReport report = new BatchValidator(pool).validate(files);
+            for (String failure : report.getFailures()) System.out.println(failure);
+            if (report.getFailureCount() > ValidationReport.MAX_FAILURES) {
+                System.out.println("... " + (report.getFailureCount() - ValidationReport.MAX_FAILURES) + " more");
+            }
+            System.out.println("Threads: " + threads);
+            System.out.println(report);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+
+import java.util.Arrays;
+
+/**
+ * One game read by {@link PgnReader}: its tag pairs, SAN move tokens and
+ * result.
+ * <p>
+ * A holder is meant to be reused: {@link PgnReader#next} overwrites it
+ * in place, and its buffers only grow to fit the longest game seen, so
+ * reading an archive of any size keeps memory constant.
+ */
+public class PgnGame {
+
+    /** How a replayed game ended. */
+    public enum Status {
+        /** Every move was legal and the final position is checkmate. */
+        CHECKMATE,
+        /** Every move was legal and the game has a decisive or drawn result. */
+        FINISHED,
+        /** Every move was legal but the result is {@code *} or missing. */
+        INCOMPLETE,
+        /** A move token is malformed, ambiguous or illegal, or the FEN tag is invalid. */
+        ILLEGAL
+    }
+
+    /** 1-based position of the game in its file. */
+    private long index;
+
+    /** Tag names; entries {@code [0 .. tagCount)} are live. */
+    private StringBuilder[] tagNames = new StringBuilder[8];
+
+    /** Tag values, parallel to {@link #tagNames}. */
+    private StringBuilder[] tagValues = new StringBuilder[8];
+
+    /** Number of tag pairs. */
+    private int tagCount;
+
+    /** Characters of every SAN token, back to back. */
+    private char[] sanChars = new char[1024];
+
+    /** Start of each SAN token in {@link #sanChars}; one extra entry marks the end. */
+    private int[] sanStart = new int[257];
+
+    /** Number of SAN tokens. */
+    private int moveCount;
+
+    /** Result token ({@code 1-0}, {@code 0-1}, {@code 1/2-1/2}, {@code *}), or null if missing. */
+    private String result;
+
+    /** Ply at which replay stopped on a bad move, or -1. */
+    private int failedPly = -1;
+
+    /** Creates an empty game holder. */
+    public PgnGame() {
+    }
+
+    /**
+     * Creates an independent copy of another game, e.g. to hand it to a
+     * worker thread while the reader refills the original.
+     *
+     * @param other game to copy
+     */
+    public PgnGame(PgnGame other) {
+        index = other.index;
+        for (int i = 0; i < other.tagCount; i++) addTag(other.tagNames[i], other.tagValues[i]);
+        sanChars = Arrays.copyOf(other.sanChars, other.sanStart[other.moveCount]);
+        sanStart = Arrays.copyOf(other.sanStart, other.moveCount + 1);
+        moveCount = other.moveCount;
+        result = other.result;
+    }
+
+    /** Empties the holder for the next game. */
+    void reset(long index) {
+        this.index = index;
+        tagCount = 0;
+        moveCount = 0;
+        sanStart[0] = 0;
+        result = null;
+        failedPly = -1;
+    }
+
+    /** Appends a tag pair, reusing earlier builders. */
+    void addTag(CharSequence name, CharSequence value) {
+        if (tagCount == tagNames.length) {
+            tagNames = Arrays.copyOf(tagNames, tagCount * 2);
+            tagValues = Arrays.copyOf(tagValues, tagCount * 2);
+        }
+        if (tagNames[tagCount] == null) {
+            tagNames[tagCount] = new StringBuilder();
+            tagValues[tagCount] = new StringBuilder();
+        }
+        tagNames[tagCount].setLength(0);
+        tagNames[tagCount].append(name);
+        tagValues[tagCount].setLength(0);
+        tagValues[tagCount].append(value);
+        tagCount++;
+    }
+
+    /** Appends a SAN token. */
+    void addSan(char[] chars, int off, int len) {
+        int start = sanStart[moveCount];
+        if (start + len > sanChars.length) sanChars = Arrays.copyOf(sanChars, Math.max(sanChars.length * 2, start + len));
+        if (moveCount + 2 > sanStart.length) sanStart = Arrays.copyOf(sanStart, sanStart.length * 2);
+        System.arraycopy(chars, off, sanChars, start, len);
+        sanStart[++moveCount] = start + len;
+    }
+
+    /** Records the result token. */
+    void setResult(String result) {
+        this.result = result;
+    }
+
+    /** @return 1-based position of the game in its file */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Looks up a tag value by name.
+     *
+     * @param name tag name such as {@code White} or {@code FEN}
+     * @return value, or null if the game has no such tag
+     */
+    public String getTag(String name) {
+        int i = findTag(name);
+        return i < 0 ? null : tagValues[i].toString();
+    }
+
+    /** @return index of the named tag, or -1 */
+    private int findTag(String name) {
+        for (int i = 0; i < tagCount; i++) {
+            if (tagNames[i].length() == name.length() && name.contentEquals(tagNames[i])) return i;
+        }
+        return -1;
+    }
+
+    /** @return number of SAN move tokens */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param ply 0 .. {@code getMoveCount() - 1}
+     * @return SAN text of that move
+     */
+    public String getSan(int ply) {
+        return new String(sanChars, sanStart[ply], sanStart[ply + 1] - sanStart[ply]);
+    }
+
+    /** @return result token, or null if the movetext ended without one */
+    public String getResult() {
+        return result;
+    }
+
+    /** @return ply of the move that failed the last {@link #replay}, or -1 */
+    public int getFailedPly() {
+        return failedPly;
+    }
+
+    /**
+     * Plays the game through the rules core from its {@code FEN} tag, or
+     * the classic start when there is none, stopping at the first move
+     * that does not resolve to exactly one legal move.
+     *
+     * @param board board to replay on; holds the final position afterwards
+     * @param moves scratch buffer of at least {@link Board#MAX_MOVES} entries
+     * @return how the game ended
+     */
+    public Status replay(Board board, int[] moves) {
+        failedPly = -1;
+        int fen = findTag("FEN");
+        if (fen < 0) {
+            board.setupClassic();
+        } else {
+            try {
+                board.setFen(tagValues[fen]);
+            } catch (IllegalArgumentException e) {
+                return Status.ILLEGAL;
+            }
+        }
+
+        for (int ply = 0; ply < moveCount; ply++) {
+            int start = sanStart[ply];
+            if (San.play(board, sanChars, start, sanStart[ply + 1] - start, moves) == Move.NONE) {
+                failedPly = ply;
+                return Status.ILLEGAL;
+            }
+        }
+        if (board.isCheckmate(board.getSideToMove() == 0 ? Board.Color.WHITE : Board.Color.BLACK)) {
+            return Status.CHECKMATE;
+        }
+        return result == null || result.equals("*") ? Status.INCOMPLETE : Status.FINISHED;
+    }
+
+    /**
+     * Describes why the last {@link #replay} returned {@link Status#ILLEGAL},
+     * e.g. {@code #12 Carlsen - Caruana: illegal move 23... Nf3}.
+     *
+     * @param board board the game was replayed on, still holding the
+     *              position before the failing move
+     * @return failure message
+     */
+    public String describeFailure(Board board) {
+        if (failedPly < 0) return this + ": invalid FEN tag";
+        return this + ": illegal move " + board.getFullmoveNumber()
+                + (board.getSideToMove() == 0 ? ". " : "... ") + getSan(failedPly);
+    }
+
+    /**
+     * Describes the game for reports, e.g.
+     * {@code #12 Carlsen - Caruana}.
+     *
+     * @return short label
+     */
+    @Override
+    public String toString() {
+        String white = getTag("White"), black = getTag("Black");
+        return "#" + index + " " + (white == null ? "?" : white) + " - " + (black == null ? "?" : black);
+    }
+}
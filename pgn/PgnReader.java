@@ -0,0 +1,308 @@
+package pgn;
+
+import board.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming PGN tokenizer that yields one game at a time.
+ * <p>
+ * Bytes are pulled from a channel through one fixed 64 KB buffer and
+ * decoded as ISO-8859-1, the PGN character set. Tag pairs and SAN move
+ * tokens are copied into a caller-supplied {@link PgnGame}; comments,
+ * variations, NAGs and move numbers are skipped. Nothing is kept between
+ * games, so memory use does not depend on the file size.
+ *
+ * <pre>{@code
+ * try (PgnReader reader = PgnReader.open(path)) {
+ *     PgnGame game = new PgnGame();
+ *     while (reader.next(game)) { ... }
+ * }
+ * }</pre>
+ */
+public class PgnReader implements Closeable {
+
+    /** Size of the read buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Source of PGN bytes. */
+    private final ReadableByteChannel channel;
+
+    /** Read buffer; {@link #bytes} is its backing array. */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Backing array of {@link #buffer}. */
+    private final byte[] bytes = buffer.array();
+
+    /** Next unread index in {@link #bytes}. */
+    private int pos;
+
+    /** Number of valid bytes in {@link #bytes}. */
+    private int limit;
+
+    /** Character pushed back by the tokenizer, or -1. */
+    private int pending = -1;
+
+    /** Previous character read from the buffer. */
+    private int previous = '\n';
+
+    /** True if the character last read starts a line, to spot '%' escape lines. */
+    private boolean lineStart = true;
+
+    /** Total bytes consumed from the channel. */
+    private long bytesRead;
+
+    /** Number of games returned so far. */
+    private long games;
+
+    /** Reusable token buffer. */
+    private char[] token = new char[64];
+
+    /** Reusable tag name and value buffers. */
+    private final StringBuilder tagName = new StringBuilder(), tagValue = new StringBuilder();
+
+    /**
+     * Creates a reader over an open channel.
+     *
+     * @param channel PGN source; closed by {@link #close}
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a PGN file for streaming.
+     *
+     * @param path file to read
+     * @return reader positioned at the first game
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /** @return bytes consumed from the channel so far */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Reads the next game into {@code game}, replacing its contents.
+     * A game ends at its result token, at the next tag section if the
+     * result is missing, or at the end of the input.
+     *
+     * @param game holder to fill
+     * @return false when the input holds no further game
+     * @throws IOException if reading the channel fails
+     */
+    public boolean next(PgnGame game) throws IOException {
+        game.reset(games + 1);
+        boolean started = false, inMoves = false;
+        while (true) {
+            int c = skipWhitespace();
+            if (c < 0) break;
+            if (c == '[') {
+                if (inMoves) {
+                    // next game's tags: this one had no result
+                    pending = c;
+                    break;
+                }
+                readTag(game);
+                started = true;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';' || (c == '%' && lineStart)) {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                readToken(c);
+            } else if (c == ')' || c == '}') {
+                // stray closer: ignore
+            } else {
+                int len = readToken(c);
+                started = true;
+                String result = resultOf(len);
+                if (result != null) {
+                    game.setResult(result);
+                    break;
+                }
+                // drop a leading move number such as "12." or "12..."
+                int off = 0;
+                if (token[0] >= '0' && token[0] <= '9') {
+                    while (off < len && token[off] >= '0' && token[off] <= '9') off++;
+                    while (off < len && token[off] == '.') off++;
+                }
+                if (off < len) {
+                    game.addSan(token, off, len - off);
+                    inMoves = true;
+                }
+            }
+        }
+        if (!started) return false;
+        games++;
+        return true;
+    }
+
+    /** @return the result token held in {@link #token}, or null if it is a move */
+    private String resultOf(int len) {
+        if (len == 1 && token[0] == '*') return "*";
+        if (len == 3 && token[1] == '-') {
+            if (token[0] == '1' && token[2] == '0') return "1-0";
+            if (token[0] == '0' && token[2] == '1') return "0-1";
+        }
+        if (len == 7 && token[0] == '1' && token[1] == '/' && token[3] == '-') return "1/2-1/2";
+        return null;
+    }
+
+    /** Reads {@code [Name "value"]} after its opening bracket. */
+    private void readTag(PgnGame game) throws IOException {
+        tagName.setLength(0);
+        tagValue.setLength(0);
+        int c = skipWhitespace();
+        while (c >= 0 && c != '"' && c != ']' && !isWhitespace(c)) {
+            tagName.append((char) c);
+            c = read();
+        }
+        while (c >= 0 && c != '"' && c != ']') c = read();
+        if (c == '"') {
+            for (c = read(); c >= 0 && c != '"'; c = read()) {
+                if (c == '\\') c = read();
+                if (c >= 0) tagValue.append((char) c);
+            }
+            if (c >= 0) skipPast(']');
+        }
+        game.addTag(tagName, tagValue);
+    }
+
+    /** Reads a token starting with {@code first} into {@link #token}; returns its length. */
+    private int readToken(int first) throws IOException {
+        int len = 0;
+        for (int c = first; c >= 0; c = read()) {
+            if (isWhitespace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == '[' || c == ';') {
+                pending = c;
+                break;
+            }
+            if (len == token.length) token = Arrays.copyOf(token, len * 2);
+            token[len++] = (char) c;
+        }
+        return len;
+    }
+
+    /** Skips a parenthesized variation, including nested ones and comments. */
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        for (int c = read(); c >= 0; c = read()) {
+            if (c == '{') skipPast('}');
+            else if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) return;
+        }
+    }
+
+    /** Skips input up to and including {@code end}. */
+    private void skipPast(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) { }
+    }
+
+    /** @return next non-whitespace character, or -1 at the end of input */
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c >= 0 && isWhitespace(c)) c = read();
+        return c;
+    }
+
+    /** @return true for the whitespace characters that separate PGN tokens */
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    /** @return next character (0..255), or -1 at the end of input */
+    private int read() throws IOException {
+        int c;
+        if (pending >= 0) {
+            c = pending;
+            pending = -1;
+            return c;
+        }
+        if (pos == limit && !fill()) return -1;
+        c = bytes[pos++] & 0xFF;
+        lineStart = previous == '\n' || previous == '\r';
+        previous = c;
+        return c;
+    }
+
+    /** Refills the buffer; returns false at the end of input. */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        if (n < 0) return false;
+        pos = 0;
+        limit = n;
+        bytesRead += n;
+        return true;
+    }
+
+    /** Closes the underlying channel. */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Replays every game of a PGN file through the rules core, printing
+     * each game that fails and the overall throughput.
+     * <p>
+     * Usage: {@code java pgn.PgnReader <file.pgn>}
+     *
+     * @param args path of the PGN file
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java pgn.PgnReader <file.pgn>");
+            return;
+        }
+        Board board = new Board();
+        int[] moves = new int[Board.MAX_MOVES];
+        PgnGame game = new PgnGame();
+        long[] counts = new long[PgnGame.Status.values().length];
+        long plies = 0, bytes;
+
+        long start = System.nanoTime();
+        try (PgnReader reader = open(Paths.get(args[0]))) {
+            while (reader.next(game)) {
+                PgnGame.Status status = game.replay(board, moves);
+                counts[status.ordinal()]++;
+                if (status == PgnGame.Status.ILLEGAL) {
+                    int ply = game.getFailedPly();
+                    plies += Math.max(ply, 0);
+                    System.out.println(game.describeFailure(board));
+                } else {
+                    plies += game.getMoveCount();
+                }
+            }
+            bytes = reader.getBytesRead();
+        }
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+
+        long total = 0;
+        for (long n : counts) total += n;
+        System.out.printf("Games: %d  (checkmate %d, finished %d, incomplete %d, illegal %d)%n", total,
+                counts[PgnGame.Status.CHECKMATE.ordinal()], counts[PgnGame.Status.FINISHED.ordinal()],
+                counts[PgnGame.Status.INCOMPLETE.ordinal()], counts[PgnGame.Status.ILLEGAL.ordinal()]);
+        System.out.println("Moves: " + plies);
+        System.out.printf("Time: %.2f s  %,.0f games/s  %,.0f moves/s  %.1f MB/s%n",
+                seconds, total / seconds, plies / seconds, bytes / seconds / 1e6);
+    }
+}
@@ -0,0 +1,108 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+import pieces.Piece;
+
+/**
+ * Resolves Standard Algebraic Notation ({@code Nf3}, {@code exd5},
+ * {@code O-O}, {@code e8=Q+}) against a {@link Board}.
+ * <p>
+ * Only moves onto the named destination square are generated, so a
+ * lookup costs one targeted generation plus a legality test. SAN is read
+ * from a character range, which lets {@link PgnReader} resolve moves
+ * straight out of its token buffer without creating strings.
+ */
+public final class San {
+
+    private San() { }
+
+    /**
+     * Finds the move a SAN token names and plays it on the board.
+     * Check, mate and annotation suffixes ({@code + # ! ?}) are ignored;
+     * promotions may be written with or without {@code =}, and castling
+     * with letter O or digit 0.
+     *
+     * @param board position to play on; unchanged if no move matches
+     * @param san   characters holding the token
+     * @param off   index of the first character
+     * @param len   token length
+     * @param moves scratch buffer of at least {@link Board#MAX_MOVES} entries
+     * @return the packed move played, or {@link Move#NONE} if the token is
+     *         malformed, names no legal move, or is ambiguous
+     */
+    public static int play(Board board, char[] san, int off, int len, int[] moves) {
+        while (len > 0 && "+#!?".indexOf(san[off + len - 1]) >= 0) len--;
+        if (len < 2) return Move.NONE;
+        int side = board.getSideToMove();
+        int end = off + len;
+
+        int type = Piece.PAWN, to, castle = -1, promo = -1, fromFile = -1, fromRank = -1;
+        if (san[off] == 'O' || san[off] == '0') {
+            // O-O or O-O-O: the king's two-square move
+            if (len == 3 && isCastle(san, off, 1)) castle = Move.KING_CASTLE;
+            else if (len == 5 && isCastle(san, off, 2)) castle = Move.QUEEN_CASTLE;
+            else return Move.NONE;
+            int home = (side == 0) ? 60 : 4;
+            type = Piece.KING;
+            to = castle == Move.KING_CASTLE ? home + 2 : home - 2;
+        } else {
+            int last = "NBRQ".indexOf(san[end - 1]);
+            if (last >= 0) {
+                promo = Piece.KNIGHT + last;
+                end -= san[end - 2] == '=' ? 2 : 1;
+            }
+            if (end - off < 2) return Move.NONE;
+            int file = san[end - 2] - 'a', rank = san[end - 1] - '1';
+            if (file < 0 || file > 7 || rank < 0 || rank > 7) return Move.NONE;
+            to = (7 - rank) * 8 + file;
+
+            int i = off;
+            int piece = "NBRQK".indexOf(san[i]);
+            if (piece >= 0) {
+                type = Piece.KNIGHT + piece;
+                i++;
+            }
+            for (; i < end - 2; i++) {
+                char ch = san[i];
+                if (ch >= 'a' && ch <= 'h') fromFile = ch - 'a';
+                else if (ch >= '1' && ch <= '8') fromRank = 7 - (ch - '1');
+                else if (ch != 'x' && ch != '-' && ch != ':') return Move.NONE;
+            }
+        }
+
+        // keep the generated moves the token describes
+        long pieces = board.getBitboard(side, type);
+        int n = board.generateMoves(1L << to, moves), matches = 0;
+        for (int k = 0; k < n; k++) {
+            int m = moves[k], from = Move.from(m);
+            if ((pieces & (1L << from)) == 0) continue;
+            if (fromFile >= 0 && (from & 7) != fromFile) continue;
+            if (fromRank >= 0 && (from >>> 3) != fromRank) continue;
+            if (Move.isPromotion(m) ? Move.promotionType(m) != promo : promo >= 0) continue;
+            if (castle >= 0 && Move.flags(m) != castle) continue;
+            moves[matches++] = m;
+        }
+
+        // a unique candidate only needs its own legality test
+        if (matches == 1) return board.tryMakeMove(moves[0]) ? moves[0] : Move.NONE;
+        int found = Move.NONE;
+        for (int k = 0; k < matches; k++) {
+            if (!board.tryMakeMove(moves[k])) continue;
+            board.unmakeMove();
+            if (found != Move.NONE) return Move.NONE;
+            found = moves[k];
+        }
+        if (found != Move.NONE) board.makeMove(found);
+        return found;
+    }
+
+    /** @return true if {@code san[off..]} holds {@code count} castling dashes, e.g. O-O */
+    private static boolean isCastle(char[] san, int off, int count) {
+        char o = san[off];
+        for (int k = 0; k < count; k++) {
+            if (san[off + 1 + 2 * k] != '-' || san[off + 2 + 2 * k] != o) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package pgn;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals from a {@link BatchValidator} run, safe to update from many
+ * worker threads at once.
+ * <p>
+ * Per-game replay times go into a power-of-two histogram rather than a
+ * list, so a report stays the same size however many games it covers.
+ */
+public class ValidationReport {
+
+    /** Failure messages kept for printing; later failures are only counted. */
+    public static final int MAX_FAILURES = 1000;
+
+    /** Games per {@link PgnGame.Status}. */
+    private final LongAdder[] counts = new LongAdder[PgnGame.Status.values().length];
+
+    /** Plies replayed, up to the failing move for illegal games. */
+    private final LongAdder moves = new LongAdder();
+
+    /** Sum of per-game replay times. */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /** Slowest single game. */
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /** Games by replay time: bucket {@code b} holds times in {@code [2^b, 2^(b+1))} ns. */
+    private final LongAdder[] histogram = new LongAdder[64];
+
+    /** First {@link #MAX_FAILURES} failure descriptions. */
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    /** Number of entries in {@link #failures}. */
+    private final AtomicInteger failureCount = new AtomicInteger();
+
+    /** Wall-clock time of the whole run, set when it finishes. */
+    private volatile long wallNanos;
+
+    /** Creates an empty report. */
+    public ValidationReport() {
+        for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        for (int i = 0; i < histogram.length; i++) histogram[i] = new LongAdder();
+    }
+
+    /**
+     * Records one replayed game.
+     *
+     * @param status how the game ended
+     * @param plies  plies replayed
+     * @param nanos  time the replay took
+     */
+    void record(PgnGame.Status status, int plies, long nanos) {
+        counts[status.ordinal()].increment();
+        moves.add(plies);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[63 - Long.numberOfLeadingZeros(Math.max(nanos, 1))].increment();
+    }
+
+    /** Keeps a failure message if there is still room for it. */
+    void addFailure(String message) {
+        if (failureCount.getAndIncrement() < MAX_FAILURES) failures.add(message);
+    }
+
+    /** Sets the wall-clock time of the run. */
+    void setWallNanos(long nanos) {
+        wallNanos = nanos;
+    }
+
+    /**
+     * @param status outcome to count
+     * @return number of games that ended that way
+     */
+    public long getCount(PgnGame.Status status) {
+        return counts[status.ordinal()].sum();
+    }
+
+    /** @return number of games validated */
+    public long getGames() {
+        long total = 0;
+        for (LongAdder count : counts) total += count.sum();
+        return total;
+    }
+
+    /** @return plies replayed over all games */
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    /** @return wall-clock time of the run in nanoseconds */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /** @return mean replay time per game in nanoseconds */
+    public long getMeanGameNanos() {
+        long games = getGames();
+        return games == 0 ? 0 : totalNanos.sum() / games;
+    }
+
+    /** @return longest replay time of any game in nanoseconds */
+    public long getMaxGameNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile of per-game replay time from the histogram.
+     *
+     * @param percent 0 .. 100
+     * @return upper bound of the histogram bucket holding that percentile, in nanoseconds
+     */
+    public long getGameNanosPercentile(double percent) {
+        long games = getGames(), seen = 0;
+        long rank = (long) Math.ceil(games * percent / 100);
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b].sum();
+            if (seen >= rank && seen > 0) return b >= 62 ? Long.MAX_VALUE : 1L << (b + 1);
+        }
+        return 0;
+    }
+
+    /** @return up to {@link #MAX_FAILURES} failure messages, in no particular order */
+    public Iterable<String> getFailures() {
+        return failures;
+    }
+
+    /** @return number of games that produced a failure message */
+    public int getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Formats the totals, throughput and per-game timing.
+     *
+     * @return multi-line summary
+     */
+    @Override
+    public String toString() {
+        double seconds = Math.max(1, wallNanos) / 1e9;
+        long games = getGames();
+        return String.format(
+                "Games: %d  (checkmate %d, finished %d, incomplete %d, illegal %d)%n"
+                + "Moves: %d%n"
+                + "Time: %.2f s  %,.0f games/s  %,.0f moves/s%n"
+                + "Per game: mean %.1f us  p50 < %.1f us  p99 < %.1f us  max %.1f us",
+                games, getCount(PgnGame.Status.CHECKMATE), getCount(PgnGame.Status.FINISHED),
+                getCount(PgnGame.Status.INCOMPLETE), getCount(PgnGame.Status.ILLEGAL),
+                getMoves(), seconds, games / seconds, getMoves() / seconds,
+                getMeanGameNanos() / 1e3, getGameNanosPercentile(50) / 1e3,
+                getGameNanosPercentile(99) / 1e3, getMaxGameNanos() / 1e3);
+    }
+}
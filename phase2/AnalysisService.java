@@ -0,0 +1,268 @@
+import board.Board;
+import board.Move;
+import pieces.Piece;
+import engine.Search;
+import engine.SearchResult;
+import engine.TranspositionTable;
+
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Analyses board positions off the Swing event thread: the legal moves
+ * of the side to move, an engine evaluation and a suggested or computer
+ * move.
+ * <p>
+ * The worker rebuilds the position by replaying the game's moves on a
+ * {@link Board}, so castling rights and the en-passant square are exact;
+ * if the game contains a move that is not legal chess, the board array
+ * alone is analysed. On the EDT a request only copies the array and
+ * packs the move list, so it never stalls painting. The work runs on one daemon thread whose queue holds a
+ * single request; a newer request replaces a queued one, and every
+ * request bumps a generation number and stops the running search, so
+ * the thread always moves on to the latest position. A stop that
+ * arrives just before the search starts is lost when the search resets
+ * its flag, so the search also checks the generation after every
+ * iteration and stops itself once it is stale. Results are delivered on
+ * the EDT with {@code SwingUtilities.invokeLater}, and only if no newer
+ * request has been made since.
+ */
+public class AnalysisService implements AutoCloseable {
+
+    /** Thinking time for a suggested move, in milliseconds. */
+    private static final long ANALYSIS_MILLIS = 1000;
+
+    /** Thinking time for a computer move, in milliseconds. */
+    private static final long PLAY_MILLIS = 1500;
+
+    /**
+     * Outcome of one request.
+     */
+    public static class Analysis {
+        private final long generation;
+        private final boolean play;
+        private final int[] legalMoves;
+        private final SearchResult result;
+
+        Analysis(long generation, boolean play, int[] legalMoves, SearchResult result) {
+            this.generation = generation;
+            this.play = play;
+            this.legalMoves = legalMoves;
+            this.result = result;
+        }
+
+        /**
+         * @return True if the position could be analysed; false if the
+         *         pieces do not form a position the rules engine accepts
+         */
+        public boolean isAvailable() {
+            return legalMoves != null;
+        }
+
+        /**
+         * @return True if this answers a computer-move request
+         */
+        public boolean isPlay() {
+            return play;
+        }
+
+        /**
+         * @return The engine's search result, or null if unavailable or
+         *         the side to move has no legal move
+         */
+        public SearchResult getResult() {
+            return result;
+        }
+
+        /**
+         * @param fromRow Row of a piece of the side to move
+         * @param fromCol Column of that piece
+         * @param toRow Destination row
+         * @param toCol Destination column
+         * @return True if the rules engine allows the move
+         */
+        public boolean isLegal(int fromRow, int fromCol, int toRow, int toCol) {
+            if (legalMoves == null) return false;
+            int from = fromRow * 8 + fromCol, to = toRow * 8 + toCol;
+            for (int move : legalMoves) {
+                if (Move.from(move) == from && Move.to(move) == to) return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return Number of legal moves for the side to move
+         */
+        public int getLegalMoveCount() {
+            return legalMoves == null ? 0 : legalMoves.length;
+        }
+    }
+
+    private final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), r -> {
+                Thread t = new Thread(r, "analysis");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    private final AtomicLong generation = new AtomicLong();
+    private final Search search = new Search(new TranspositionTable(16));
+
+    /**
+     * Requests analysis of the position a game has reached, replacing any
+     * pending request. Call on the EDT.
+     * @param game The base position and moves so far; neither may change
+     *             afterwards
+     * @param board The board array the moves lead to (copied before returning)
+     * @param turn The side to move, "white" or "black"
+     * @param play True for a computer move, false for a suggestion
+     * @param onResult Receives the analysis on the EDT, unless a newer
+     *                 request or {@link #cancel()} supersedes it
+     */
+    public void request(SavedGame game, ChessPiece[][] board, String turn, boolean play,
+                        Consumer<Analysis> onResult) {
+        ChessPiece[][] snapshot = new ChessPiece[8][];
+        for (int i = 0; i < 8; i++) snapshot[i] = board[i].clone();
+        long gen = generation.incrementAndGet();
+        search.stop();
+        worker.execute(() -> analyse(game, snapshot, turn, play, gen, onResult));
+    }
+
+    /**
+     * Drops pending and running requests without asking for a new one.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        search.stop();
+    }
+
+    /**
+     * Runs one request on the worker thread.
+     */
+    private void analyse(SavedGame game, ChessPiece[][] snapshot, String turn, boolean play, long gen,
+                         Consumer<Analysis> onResult) {
+        if (gen != generation.get()) return;   // superseded while queued
+        Board position = new Board();
+        try {
+            position.setFen(toFen(game.getBaseBoard(), game.getBaseTurn()));
+            if (!replay(position, game.getMoves())) position.setFen(toFen(snapshot, turn));
+        } catch (IllegalArgumentException e) {
+            publish(new Analysis(gen, play, null, null), onResult);
+            return;
+        }
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int n = position.generateMoves(moves), legal = 0;
+        for (int i = 0; i < n; i++) {
+            if (position.tryMakeMove(moves[i])) {
+                position.unmakeMove();
+                moves[legal++] = moves[i];
+            }
+        }
+        int[] legalMoves = Arrays.copyOf(moves, legal);
+        // publish the legal moves at once; the search result follows
+        if (!play) publish(new Analysis(gen, false, legalMoves, null), onResult);
+        if (legal == 0 || gen != generation.get()) return;
+
+        // a stop sent before the search reset its flag is repeated from here
+        search.setIterationListener(r -> {
+            if (gen != generation.get()) search.stop();
+        });
+        SearchResult result = search.search(position, Search.MAX_PLY, play ? PLAY_MILLIS : ANALYSIS_MILLIS);
+        publish(new Analysis(gen, play, legalMoves, result), onResult);
+    }
+
+    /**
+     * Hands a result to the EDT if its request is still the latest.
+     */
+    private void publish(Analysis analysis, Consumer<Analysis> onResult) {
+        if (analysis.generation != generation.get()) return;
+        SwingUtilities.invokeLater(() -> {
+            if (analysis.generation == generation.get()) onResult.accept(analysis);
+        });
+    }
+
+    /**
+     * Plays a game's moves on a board.
+     * @param position The base position; left after the last move played
+     * @param moves Moves packed by {@link SavedGame#packMove}
+     * @return False if a move is not legal chess
+     */
+    private static boolean replay(Board position, int[] moves) {
+        int[] buffer = new int[Board.MAX_MOVES];
+        for (int packed : moves) {
+            int from = SavedGame.fromRow(packed) * 8 + SavedGame.fromCol(packed);
+            int to = SavedGame.toRow(packed) * 8 + SavedGame.toCol(packed);
+            // the codes are the engine's piece types; 0 means a queen
+            int promotion = SavedGame.promotionCode(packed) == 0 ? Piece.QUEEN : SavedGame.promotionCode(packed);
+            int n = position.generateMoves(1L << to, buffer), played = Move.NONE;
+            for (int i = 0; i < n && played == Move.NONE; i++) {
+                int move = buffer[i];
+                if (Move.from(move) != from) continue;
+                if (Move.isPromotion(move) && Move.promotionType(move) != promotion) continue;
+                if (position.tryMakeMove(move)) played = move;
+            }
+            if (played == Move.NONE) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Converts a phase 2 board to FEN, as the start of a replay. A side
+     * may castle on a wing if its king and that rook stand on their home
+     * squares; there is no en-passant square.
+     * @param board The board array
+     * @param turn The side to move
+     * @return FEN text
+     */
+    static String toFen(ChessPiece[][] board, String turn) {
+        StringBuilder sb = new StringBuilder(80);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board[row][col];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) sb.append(empty);
+                empty = 0;
+                char letter = piece.getType().equals("knight") ? 'n' : piece.getType().charAt(0);
+                sb.append(piece.getColor().equals("white") ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) sb.append(empty);
+            if (row < 7) sb.append('/');
+        }
+        sb.append(turn.equals("white") ? " w " : " b ");
+        int length = sb.length();
+        if (isHome(board, 7, 4, "king", "white")) {
+            if (isHome(board, 7, 7, "rook", "white")) sb.append('K');
+            if (isHome(board, 7, 0, "rook", "white")) sb.append('Q');
+        }
+        if (isHome(board, 0, 4, "king", "black")) {
+            if (isHome(board, 0, 7, "rook", "black")) sb.append('k');
+            if (isHome(board, 0, 0, "rook", "black")) sb.append('q');
+        }
+        if (sb.length() == length) sb.append('-');
+        return sb.append(" - 0 1").toString();
+    }
+    
+    /** @return True if the given piece stands on the square */
+    private static boolean isHome(ChessPiece[][] board, int row, int col, String type, String color) {
+        ChessPiece piece = board[row][col];
+        return piece != null && piece.getType().equals(type) && piece.getColor().equals(color);
+    }
+
+    /**
+     * Stops the worker thread.
+     */
+    @Override
+    public void close() {
+        cancel();
+        worker.shutdownNow();
+    }
+}
@@ -1,27 +1,45 @@
 // ChessBoard.java
 import javax.swing.*;
 import java.awt.*;
-import java.awt.datatransfer.*;
-import java.awt.dnd.*;
 import java.awt.event.*;
+import board.Move;
+import engine.SearchResult;
+
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Main chess board GUI panel that handles the game logic and display.
+ * The board is a single painted component: squares and cached piece
+ * glyphs are drawn in {@code paintComponent}, and clicks and drags are
+ * mapped to squares by hit-testing. After every change the position is
+ * sent to an {@link AnalysisService}, which reports legal moves, an
+ * evaluation and computer moves back on the event thread.
  */
 public class ChessBoard extends JPanel {
     private static final int SQUARE_SIZE = 70;
+    private static final int DRAG_THRESHOLD = 4;
+    private static final Path SAVE_FILE = Paths.get("chessgame.save");
     private ChessPiece[][] board;
-    private JButton[][] squares;
+    private ChessPiece[][] baseBoard;
+    private String baseTurn = "white";
+    private final PieceGlyphs glyphs = new PieceGlyphs();
+    private int pressRow = -1;
+    private int pressCol = -1;
+    private Point pressPoint;
+    private Point dragPoint;
     private int selectedRow = -1;
     private int selectedCol = -1;
     private String currentTurn = "white";
     private List<String> moveHistory;
     private List<ChessPiece> whiteCaptured;
     private List<ChessPiece> blackCaptured;
-    private List<GameState> gameHistory;
+    private List<MoveRecord> undoHistory;
     
     private Color lightSquare = new Color(240, 217, 181);
     private Color darkSquare = new Color(181, 136, 99);
@@ -31,134 +49,208 @@ public class ChessBoard extends JPanel {
     private JPanel capturedWhitePanel;
     private JPanel capturedBlackPanel;
     private JLabel turnLabel;
+    private JLabel analysisLabel;
+    
+    private final AnalysisService analysis = new AnalysisService();
+    private AnalysisService.Analysis latestAnalysis;
+    private String computerColor;
+    private Color hintColor = new Color(0, 0, 0, 70);
     
     /**
      * Constructor for ChessBoard.
      */
     public ChessBoard() {
-        board = new ChessPiece[8][8];
-        squares = new JButton[8][8];
         moveHistory = new ArrayList<>();
         whiteCaptured = new ArrayList<>();
         blackCaptured = new ArrayList<>();
-        gameHistory = new ArrayList<>();
+        undoHistory = new ArrayList<>();
         
-        setLayout(new GridLayout(8, 8));
+        setPreferredSize(new Dimension(8 * SQUARE_SIZE, 8 * SQUARE_SIZE));
+        setOpaque(true);
         initializeBoard();
-        createSquares();
+        
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) { handlePress(e.getPoint()); }
+            @Override
+            public void mouseDragged(MouseEvent e) { handleDrag(e.getPoint()); }
+            @Override
+            public void mouseReleased(MouseEvent e) { handleRelease(e.getPoint()); }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
     }
     
     /**
      * Initializes the chess board with pieces in starting positions.
      */
     private void initializeBoard() {
-        // Black pieces
-        String[] backRow = {"rook", "knight", "bishop", "queen", "king", "bishop", "knight", "rook"};
-        for (int i = 0; i < 8; i++) {
-            board[0][i] = new ChessPiece(backRow[i], "black");
-            board[1][i] = new ChessPiece("pawn", "black");
-        }
-        
-        // White pieces
+        board = SaveFormat.initialBoard();
+        // The game's moves are saved relative to this position
+        baseBoard = copyBoard(board);
+        baseTurn = "white";
+    }
+    
+    /**
+     * Copies a board array. Pieces are immutable, so they are shared.
+     * @param original The board to copy
+     * @return A new 8x8 array with the same pieces
+     */
+    private static ChessPiece[][] copyBoard(ChessPiece[][] original) {
+        ChessPiece[][] copy = new ChessPiece[8][8];
         for (int i = 0; i < 8; i++) {
-            board[6][i] = new ChessPiece("pawn", "white");
-            board[7][i] = new ChessPiece(backRow[i], "white");
+            copy[i] = original[i].clone();
         }
+        return copy;
     }
     
     /**
-     * Creates the GUI squares for the chess board.
+     * @return The side length of one square in pixels
      */
-    private void createSquares() {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                JButton square = new JButton();
-                square.setFont(new Font("Sans-Serif", Font.PLAIN, 50));
-                square.setPreferredSize(new Dimension(SQUARE_SIZE, SQUARE_SIZE));
-                square.setFocusPainted(false);
-                square.setOpaque(true);
-                square.setBorderPainted(false);  // Change this from true to false
-                square.setContentAreaFilled(true);  // Add this line
-                square.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1)); // Add thin border
-                
-                // Set square color
-                Color squareColor = (row + col) % 2 == 0 ? lightSquare : darkSquare;
-                square.setBackground(squareColor);
+    private int squareSize() {
+        return Math.max(1, Math.min(getWidth(), getHeight()) / 8);
+    }
+    
+    /**
+     * Paints the squares and pieces that intersect the clip region.
+     * @param g The graphics context
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int size = squareSize();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        
+        int firstRow = Math.max(0, clip.y / size), lastRow = Math.min(7, (clip.y + clip.height - 1) / size);
+        int firstCol = Math.max(0, clip.x / size), lastCol = Math.min(7, (clip.x + clip.width - 1) / size);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int x = col * size, y = row * size;
+                boolean selected = row == selectedRow && col == selectedCol;
+                g.setColor(selected ? selectedColor : (row + col) % 2 == 0 ? lightSquare : darkSquare);
+                g.fillRect(x, y, size, size);
+                g.setColor(Color.BLACK);
+                g.drawRect(x, y, size - 1, size - 1);
                 
-                // Add piece if present
-                if (board[row][col] != null) {
-                    square.setText(board[row][col].getSymbol());
+                // The dragged piece follows the cursor instead
+                boolean dragged = dragPoint != null && row == pressRow && col == pressCol;
+                if (board[row][col] != null && !dragged) {
+                    g.drawImage(glyphs.get(board[row][col], size), x, y, null);
                 }
                 
-                final int r = row;
-                final int c = col;
-                
-                // Click handler
-                square.addActionListener(e -> handleSquareClick(r, c));
-                
-                // Drag and Drop support
-                setupDragAndDrop(square, r, c);
-                
-                squares[row][col] = square;
-                add(square);
+                // Mark the selected piece's legal destinations
+                if (selectedRow != -1 && latestAnalysis != null
+                        && latestAnalysis.isLegal(selectedRow, selectedCol, row, col)) {
+                    g.setColor(hintColor);
+                    g.fillOval(x + size * 3 / 8, y + size * 3 / 8, size / 4, size / 4);
+                }
             }
         }
+        
+        if (dragPoint != null && board[pressRow][pressCol] != null) {
+            g.drawImage(glyphs.get(board[pressRow][pressCol], size),
+                        dragPoint.x - size / 2, dragPoint.y - size / 2, null);
+        }
     }
     
     /**
-     * Sets up drag and drop functionality for a square.
-     * @param square The button to set up
+     * Requests a repaint of just one square.
      * @param row The row of the square
      * @param col The column of the square
      */
-    private void setupDragAndDrop(JButton square, int row, int col) {
-        // Drag source
-        DragSource dragSource = new DragSource();
-        dragSource.createDefaultDragGestureRecognizer(square, DnDConstants.ACTION_MOVE,
-            new DragGestureListener() {
-                public void dragGestureRecognized(DragGestureEvent dge) {
-                    if (board[row][col] != null && board[row][col].getColor().equals(currentTurn)) {
-                        selectedRow = row;
-                        selectedCol = col;
-                        highlightSquare(row, col, true);
-                        
-                        Transferable transferable = new StringSelection(row + "," + col);
-                        dragSource.startDrag(dge, DragSource.DefaultMoveDrop, transferable, new DragSourceAdapter() {});
-                    }
-                }
-            });
-        
-        // Drop target
-        new DropTarget(square, new DropTargetAdapter() {
-            public void drop(DropTargetDropEvent dtde) {
-                try {
-                    dtde.acceptDrop(DnDConstants.ACTION_MOVE);
-                    Transferable transferable = dtde.getTransferable();
-                    String data = (String) transferable.getTransferData(DataFlavor.stringFlavor);
-                    String[] coords = data.split(",");
-                    int fromRow = Integer.parseInt(coords[0]);
-                    int fromCol = Integer.parseInt(coords[1]);
-                    
-                    // Check if trying to capture own piece
-                    if (board[row][col] != null && 
-                        board[row][col].getColor().equals(board[fromRow][fromCol].getColor())) {
-                        highlightSquare(fromRow, fromCol, false);
-                        selectedRow = -1;
-                        selectedCol = -1;
-                        dtde.dropComplete(false);
-                        return;
-                    }
-                    
-                    makeMove(fromRow, fromCol, row, col);
-                    highlightSquare(fromRow, fromCol, false);
-                    selectedRow = -1;
-                    selectedCol = -1;
-                    dtde.dropComplete(true);
-                } catch (Exception e) {
-                    dtde.dropComplete(false);
-                }
+    private void repaintSquare(int row, int col) {
+        int size = squareSize();
+        repaint(col * size, row * size, size, size);
+    }
+    
+    /**
+     * Requests a repaint of the area a dragged glyph covers around a point.
+     * @param p The glyph centre
+     */
+    private void repaintGlyph(Point p) {
+        int size = squareSize();
+        repaint(p.x - size / 2 - 1, p.y - size / 2 - 1, size + 2, size + 2);
+    }
+    
+    /**
+     * @param p A point in component coordinates
+     * @return The {row, col} under the point, or null if off the board
+     */
+    private int[] squareAt(Point p) {
+        int size = squareSize();
+        int row = p.y / size, col = p.x / size;
+        if (p.x < 0 || p.y < 0 || row > 7 || col > 7) return null;
+        return new int[] {row, col};
+    }
+    
+    /**
+     * Remembers the pressed square as a possible drag source.
+     * @param p The press location
+     */
+    private void handlePress(Point p) {
+        int[] sq = squareAt(p);
+        pressRow = sq == null ? -1 : sq[0];
+        pressCol = sq == null ? -1 : sq[1];
+        pressPoint = p;
+        dragPoint = null;
+    }
+    
+    /**
+     * Starts or continues dragging a piece of the side to move.
+     * @param p The current cursor location
+     */
+    private void handleDrag(Point p) {
+        if (pressRow == -1 || board[pressRow][pressCol] == null
+                || !board[pressRow][pressCol].getColor().equals(currentTurn)) {
+            return;
+        }
+        if (dragPoint == null) {
+            if (p.distance(pressPoint) < DRAG_THRESHOLD) return;
+            // Drag started: select the source square
+            if (selectedRow != -1) highlightSquare(selectedRow, selectedCol, false);
+            selectedRow = pressRow;
+            selectedCol = pressCol;
+            highlightSquare(pressRow, pressCol, true);
+        } else {
+            repaintGlyph(dragPoint);
+        }
+        dragPoint = p;
+        repaintGlyph(dragPoint);
+    }
+    
+    /**
+     * Finishes a drag with a drop, or treats the press as a click.
+     * @param p The release location
+     */
+    private void handleRelease(Point p) {
+        int[] sq = squareAt(p);
+        if (dragPoint == null) {
+            if (sq != null && sq[0] == pressRow && sq[1] == pressCol) {
+                handleSquareClick(pressRow, pressCol);
             }
-        });
+            pressRow = -1;
+            pressCol = -1;
+            return;
+        }
+        
+        int fromRow = pressRow, fromCol = pressCol;
+        repaintGlyph(dragPoint);
+        dragPoint = null;
+        pressRow = -1;
+        pressCol = -1;
+        
+        // Drop on the origin, off the board, or on an own piece cancels the drag
+        boolean dropped = sq != null && !(sq[0] == fromRow && sq[1] == fromCol)
+                && !(board[sq[0]][sq[1]] != null
+                     && board[sq[0]][sq[1]].getColor().equals(board[fromRow][fromCol].getColor()));
+        if (dropped) {
+            makeMove(fromRow, fromCol, sq[0], sq[1]);
+        }
+        highlightSquare(fromRow, fromCol, false);
+        selectedRow = -1;
+        selectedCol = -1;
+        repaintSquare(fromRow, fromCol);
     }
     
     /**
@@ -209,12 +301,52 @@ public class ChessBoard extends JPanel {
      * @param toCol Destination column
      */
     private void makeMove(int fromRow, int fromCol, int toRow, int toCol) {
-        // Save game state for undo
-            GameState state = new GameState(board, currentTurn, moveHistory, 
-                                   whiteCaptured, blackCaptured, lightSquare, darkSquare);  // Add colors here
-    gameHistory.add(state);
-
+        makeMove(fromRow, fromCol, toRow, toCol, null);
+    }
+    
+    /**
+     * Makes a move on the chess board, choosing the piece a promoting
+     * pawn becomes.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param promotion The type a pawn reaching the last rank becomes,
+     *                  or null for a queen
+     */
+    private void makeMove(int fromRow, int fromCol, int toRow, int toCol, String promotion) {
+        ChessPiece movingPiece = board[fromRow][fromCol];
+        boolean kingCaptured = applyMove(fromRow, fromCol, toRow, toCol, promotion);
+        
+        // Update GUI; castling and en passant touch a third square
+        repaintSquare(toRow, toCol);
+        repaintSquare(fromRow, fromCol);
+        if (undoHistory.get(undoHistory.size() - 1).getCompanion() != null) repaint();
+        if (kingCaptured) {
+            analysis.cancel();
+            declareWinner(movingPiece.getColor());
+            return;
+        }
         
+        // Update displays
+        updateHistoryDisplay();
+        updateCapturedDisplay();
+        updateTurnLabel();
+        requestAnalysis();
+    }
+    
+    /**
+     * Applies a move to the game model: board, captured lists, move
+     * history, turn and undo record. Does not touch the display.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param promotion The type a pawn reaching the last rank becomes,
+     *                  or null for a queen
+     * @return True if the move captured a king, which ends the game
+     */
+    private boolean applyMove(int fromRow, int fromCol, int toRow, int toCol, String promotion) {
         ChessPiece movingPiece = board[fromRow][fromCol];
         ChessPiece capturedPiece = board[toRow][toCol];
         
@@ -228,36 +360,72 @@ public class ChessBoard extends JPanel {
             
             // Check for king capture
             if (capturedPiece.getType().equals("king")) {
+                undoHistory.add(new MoveRecord(fromRow, fromCol, toRow, toCol,
+                        movingPiece, capturedPiece, currentTurn, false));
                 board[toRow][toCol] = movingPiece;
                 board[fromRow][fromCol] = null;
-                squares[toRow][toCol].setText(movingPiece.getSymbol());
-                squares[fromRow][fromCol].setText("");
-                declareWinner(movingPiece.getColor());
-                return;
+                return true;
             }
         }
         
+        // A pawn reaching the last rank is promoted; the engine rejects
+        // positions with pawns there
+        ChessPiece placed = movingPiece;
+        if (movingPiece.getType().equals("pawn") && (toRow == 0 || toRow == 7)) {
+            if (promotion == null) promotion = "queen";
+            placed = new ChessPiece(promotion, movingPiece.getColor());
+        } else {
+            promotion = null;
+        }
+        
+        // Castling moves the rook as well; en passant takes the pawn beside
+        int companionRow = -1, companionFrom = -1, companionTo = -1;
+        ChessPiece companion = null;
+        int rookCol = SavedGame.castlingRookCol(board, fromRow, fromCol, toRow, toCol);
+        if (rookCol >= 0) {
+            companionRow = fromRow;
+            companionFrom = rookCol;
+            companionTo = (fromCol + toCol) / 2;
+            companion = board[fromRow][rookCol];
+        } else if (SavedGame.isEnPassant(board, fromRow, fromCol, toRow, toCol, lastMove())) {
+            companionRow = fromRow;
+            companionFrom = toCol;
+            companion = board[fromRow][toCol];
+            (movingPiece.getColor().equals("white") ? whiteCaptured : blackCaptured).add(companion);
+        }
+        
+        // Record just what this move changes, for undo
+        undoHistory.add(new MoveRecord(fromRow, fromCol, toRow, toCol, movingPiece, capturedPiece,
+                currentTurn, true, promotion, companionRow, companionFrom, companionTo, companion));
+        
         // Move the piece
-        board[toRow][toCol] = movingPiece;
+        board[toRow][toCol] = placed;
         board[fromRow][fromCol] = null;
-        
-        // Update GUI
-        squares[toRow][toCol].setText(movingPiece.getSymbol());
-        squares[fromRow][fromCol].setText("");
+        if (companion != null) {
+            board[companionRow][companionFrom] = null;
+            if (companionTo >= 0) board[companionRow][companionTo] = companion;
+        }
         
         // Record move
         String move = movingPiece.getColor() + " " + movingPiece.getType() + 
                      " " + (char)('a' + fromCol) + (8 - fromRow) + 
-                     " → " + (char)('a' + toCol) + (8 - toRow);
+                     " → " + (char)('a' + toCol) + (8 - toRow) +
+                     (promotion != null ? " = " + promotion : "");
         moveHistory.add(move);
         
         // Switch turn
         currentTurn = currentTurn.equals("white") ? "black" : "white";
-        
-        // Update displays
-        updateHistoryDisplay();
-        updateCapturedDisplay();
-        updateTurnLabel();
+        return false;
+    }
+    
+    /**
+     * @return The last move played, packed by {@link SavedGame#packMove},
+     *         or -1 if there is none to undo
+     */
+    private int lastMove() {
+        if (undoHistory.isEmpty()) return -1;
+        MoveRecord last = undoHistory.get(undoHistory.size() - 1);
+        return SavedGame.packMove(last.getFromRow(), last.getFromCol(), last.getToRow(), last.getToCol());
     }
     
     /**
@@ -267,12 +435,78 @@ public class ChessBoard extends JPanel {
      * @param highlight True to highlight, false to unhighlight
      */
     private void highlightSquare(int row, int col, boolean highlight) {
-        if (highlight) {
-            squares[row][col].setBackground(selectedColor);
+        // The highlight itself follows selectedRow/selectedCol when painted;
+        // legal-move marks can be anywhere, so then the whole board repaints
+        if (latestAnalysis != null && latestAnalysis.isAvailable()) {
+            repaint();
+        } else {
+            repaintSquare(row, col);
+        }
+    }
+    
+    /**
+     * Sends the current position to the analysis service, superseding
+     * any earlier request. If the computer plays the side to move, it
+     * asks for a move instead of a suggestion.
+     */
+    private void requestAnalysis() {
+        latestAnalysis = null;
+        if (analysisLabel != null) analysisLabel.setText("Analysing...");
+        analysis.request(currentGame(), board, currentTurn, currentTurn.equals(computerColor), this::showAnalysis);
+    }
+    
+    /**
+     * Asks the computer to play one move for the side to move.
+     */
+    public void playComputerMove() {
+        latestAnalysis = null;
+        if (analysisLabel != null) analysisLabel.setText("Thinking...");
+        analysis.request(currentGame(), board, currentTurn, true, this::showAnalysis);
+    }
+    
+    /**
+     * Receives an analysis on the event thread. Stale results never
+     * arrive here: the service drops them once a newer request exists.
+     * @param result The analysis of the current position
+     */
+    private void showAnalysis(AnalysisService.Analysis result) {
+        latestAnalysis = result;
+        SearchResult search = result.getResult();
+        if (result.isPlay() && search != null && search.move != Move.NONE) {
+            int move = search.move;
+            String promotion = Move.isPromotion(move) ? SavedGame.PROMOTIONS[Move.promotionType(move)] : null;
+            makeMove(Move.from(move) >>> 3, Move.from(move) & 7, Move.to(move) >>> 3, Move.to(move) & 7, promotion);
+            return;
+        }
+        if (selectedRow != -1) repaint();
+        if (analysisLabel == null) return;
+        if (!result.isAvailable()) {
+            analysisLabel.setText("Analysis unavailable for this position");
+        } else if (result.getLegalMoveCount() == 0) {
+            analysisLabel.setText("No legal moves");
+        } else if (search == null) {
+            analysisLabel.setText(result.getLegalMoveCount() + " legal moves | analysing...");
+        } else {
+            analysisLabel.setText(result.getLegalMoveCount() + " legal moves | " + describe(search));
+        }
+    }
+    
+    /**
+     * Formats a search result from white's point of view.
+     * @param search The engine result
+     * @return Text such as "eval +0.35, best e2e4 (depth 6)"
+     */
+    private String describe(SearchResult search) {
+        String eval;
+        boolean whiteToMove = currentTurn.equals("white");
+        if (search.isMate()) {
+            int mate = whiteToMove ? search.mateIn() : -search.mateIn();
+            eval = "mate " + (mate > 0 ? "+" : "") + mate;
         } else {
-            Color squareColor = (row + col) % 2 == 0 ? lightSquare : darkSquare;
-            squares[row][col].setBackground(squareColor);
+            int score = whiteToMove ? search.score : -search.score;
+            eval = String.format("%+.2f", score / 100.0);
         }
+        return "eval " + eval + ", best " + Move.toString(search.move) + " (depth " + search.depth + ")";
     }
     
     /**
@@ -298,25 +532,34 @@ public class ChessBoard extends JPanel {
      * Starts a new game by resetting the board.
      */
     public void newGame() {
-        removeAll();
-        board = new ChessPiece[8][8];
-        squares = new JButton[8][8];
         moveHistory.clear();
         whiteCaptured.clear();
         blackCaptured.clear();
-        gameHistory.clear();
+        undoHistory.clear();
         currentTurn = "white";
         selectedRow = -1;
         selectedCol = -1;
         
         initializeBoard();
-        createSquares();
-        revalidate();
         repaint();
         
         updateHistoryDisplay();
         updateCapturedDisplay();
         updateTurnLabel();
+        requestAnalysis();
+    }
+    
+    /**
+     * @return The game so far: base position and moves, plus the colors
+     */
+    private SavedGame currentGame() {
+        int[] moves = new int[undoHistory.size()];
+        for (int i = 0; i < moves.length; i++) {
+            MoveRecord r = undoHistory.get(i);
+            moves[i] = SavedGame.packMove(r.getFromRow(), r.getFromCol(), r.getToRow(), r.getToCol(),
+                                          r.getPromotion());
+        }
+        return new SavedGame(baseBoard, baseTurn, moves, lightSquare, darkSquare);
     }
     
     /**
@@ -324,13 +567,11 @@ public class ChessBoard extends JPanel {
      */
     public void saveGame() {
     try {
-        GameState state = new GameState(board, currentTurn, moveHistory,
-                                       whiteCaptured, blackCaptured, lightSquare, darkSquare);  // Add colors here
-        FileOutputStream fileOut = new FileOutputStream("chessgame.save");
-        ObjectOutputStream out = new ObjectOutputStream(fileOut);
-        out.writeObject(state);
-        out.close();
-        fileOut.close();
+        SavedGame game = currentGame();
+        try (FileChannel out = FileChannel.open(SAVE_FILE, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SaveFormat.write(game, out);
+        }
         JOptionPane.showMessageDialog(this, "Game saved successfully!");
     } catch (IOException e) {
         JOptionPane.showMessageDialog(this, "Error saving game: " + e.getMessage());
@@ -342,71 +583,92 @@ public class ChessBoard extends JPanel {
      */
  public void loadGame() {
     try {
-        FileInputStream fileIn = new FileInputStream("chessgame.save");
-        ObjectInputStream in = new ObjectInputStream(fileIn);
-        GameState state = (GameState) in.readObject();
-        in.close();
-        fileIn.close();
+        SavedGame game;
+        try (FileChannel in = FileChannel.open(SAVE_FILE, StandardOpenOption.READ)) {
+            game = SaveFormat.read(in);
+        }
         
-        // Restore game state
-        board = state.getBoard();
-        currentTurn = state.getCurrentTurn();
-        moveHistory = new ArrayList<>(state.getMoveHistory());
-        whiteCaptured = new ArrayList<>(state.getWhiteCaptured());
-        blackCaptured = new ArrayList<>(state.getBlackCaptured());
-        // ADD THESE TWO LINES:
-        lightSquare = state.getLightSquare();
-        darkSquare = state.getDarkSquare();
+        // Restore game state by replaying the moves from the base position
+        baseBoard = copyBoard(game.getBaseBoard());
+        baseTurn = game.getBaseTurn();
+        board = copyBoard(baseBoard);
+        currentTurn = baseTurn;
+        moveHistory.clear();
+        whiteCaptured.clear();
+        blackCaptured.clear();
+        undoHistory.clear();
+        for (int move : game.getMoves()) {
+            applyMove(SavedGame.fromRow(move), SavedGame.fromCol(move),
+                      SavedGame.toRow(move), SavedGame.toCol(move), SavedGame.promotion(move));
+        }
+        lightSquare = game.getLightSquare();
+        darkSquare = game.getDarkSquare();
         selectedRow = -1;
         selectedCol = -1;
         
         // Update GUI
-        removeAll();
-        squares = new JButton[8][8];
-        createSquares();
-        revalidate();
         repaint();
         
         updateHistoryDisplay();
         updateCapturedDisplay();
         updateTurnLabel();
+        requestAnalysis();
         
         JOptionPane.showMessageDialog(this, "Game loaded successfully!");
-    } catch (IOException | ClassNotFoundException e) {
+    } catch (IOException e) {
         JOptionPane.showMessageDialog(this, "Error loading game: " + e.getMessage());
     }
 }    
+
     /**
      * Undoes the last move.
      */
 public void undoMove() {
-    if (gameHistory.isEmpty()) {
+    if (undoHistory.isEmpty()) {
         JOptionPane.showMessageDialog(this, "No moves to undo!");
         return;
     }
     
-    GameState previousState = gameHistory.remove(gameHistory.size() - 1);
-    board = previousState.getBoard();
-    currentTurn = previousState.getCurrentTurn();
-    moveHistory = new ArrayList<>(previousState.getMoveHistory());
-    whiteCaptured = new ArrayList<>(previousState.getWhiteCaptured());
-    blackCaptured = new ArrayList<>(previousState.getBlackCaptured());
-    // ADD THESE TWO LINES:
-    lightSquare = previousState.getLightSquare();
-    darkSquare = previousState.getDarkSquare();
+    // Reverse the last move's delta instead of restoring a snapshot
+    MoveRecord last = undoHistory.remove(undoHistory.size() - 1);
+    int fromRow = last.getFromRow(), fromCol = last.getFromCol();
+    int toRow = last.getToRow(), toCol = last.getToCol();
+    board[fromRow][fromCol] = last.getMoved();
+    board[toRow][toCol] = last.getCaptured();
+    if (last.getCaptured() != null) {
+        List<ChessPiece> captured = last.getMoved().getColor().equals("white") ? whiteCaptured : blackCaptured;
+        captured.remove(captured.size() - 1);
+    }
+    if (last.getCompanion() != null) {
+        int row = last.getCompanionRow();
+        board[row][last.getCompanionFromCol()] = last.getCompanion();
+        if (last.getCompanionToCol() >= 0) {
+            board[row][last.getCompanionToCol()] = null;
+        } else {
+            List<ChessPiece> captured = last.getMoved().getColor().equals("white") ? whiteCaptured : blackCaptured;
+            captured.remove(captured.size() - 1);
+        }
+        repaint();
+    }
+    if (last.isRecorded()) {
+        moveHistory.remove(moveHistory.size() - 1);
+    }
+    currentTurn = last.getPriorTurn();
+    
+    if (selectedRow != -1) {
+        highlightSquare(selectedRow, selectedCol, false);
+    }
     selectedRow = -1;
     selectedCol = -1;
     
-    // Update GUI
-    removeAll();
-    squares = new JButton[8][8];
-    createSquares();
-    revalidate();
-    repaint();
+    // Repaint only the two squares the move touched
+    repaintSquare(fromRow, fromCol);
+    repaintSquare(toRow, toCol);
     
     updateHistoryDisplay();
     updateCapturedDisplay();
     updateTurnLabel();
+    requestAnalysis();
 }
     
     /**
@@ -433,13 +695,7 @@ public void undoMove() {
                 break;
         }
         
-        // Update all squares with new colors
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Color squareColor = (row + col) % 2 == 0 ? lightSquare : darkSquare;
-                squares[row][col].setBackground(squareColor);
-            }
-        }
+        // Squares pick up the new colors on the next paint
         repaint();
     }
     
@@ -464,6 +720,20 @@ public void undoMove() {
         updateTurnLabel();
     }
     
+    public void setAnalysisLabel(JLabel label) {
+        this.analysisLabel = label;
+        requestAnalysis();
+    }
+    
+    /**
+     * Lets the computer play one side automatically.
+     * @param color "white", "black", or null for no computer player
+     */
+    public void setComputerColor(String color) {
+        this.computerColor = color;
+        requestAnalysis();
+    }
+    
     private void updateHistoryDisplay() {
         if (historyArea != null) {
             StringBuilder sb = new StringBuilder();
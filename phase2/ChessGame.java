@@ -35,6 +35,10 @@ public class ChessGame extends JFrame {
         turnLabel.setFont(new Font("Arial", Font.BOLD, 20));
         chessBoard.setTurnLabel(turnLabel);
         
+        // Create analysis label
+        JLabel analysisLabel = new JLabel(" ", SwingConstants.CENTER);
+        chessBoard.setAnalysisLabel(analysisLabel);
+        
         // Create side panel for history
         JPanel sidePanel = new JPanel(new BorderLayout(5, 5));
         sidePanel.setPreferredSize(new Dimension(300, 0));
@@ -92,6 +96,7 @@ public class ChessGame extends JFrame {
         mainPanel.add(turnLabel, BorderLayout.NORTH);
         mainPanel.add(chessBoard, BorderLayout.CENTER);
         mainPanel.add(sidePanel, BorderLayout.EAST);
+        mainPanel.add(analysisLabel, BorderLayout.SOUTH);
         
         add(mainPanel);
         
@@ -135,8 +140,22 @@ public class ChessGame extends JFrame {
         
         settingsMenu.add(boardStyleItem);
         
+        // Computer menu
+        JMenu computerMenu = new JMenu("Computer");
+        
+        JMenuItem computerMoveItem = new JMenuItem("Play Move Now");
+        computerMoveItem.addActionListener(e -> chessBoard.playComputerMove());
+        
+        JCheckBoxMenuItem computerBlackItem = new JCheckBoxMenuItem("Computer Plays Black");
+        computerBlackItem.addActionListener(e ->
+            chessBoard.setComputerColor(computerBlackItem.isSelected() ? "black" : null));
+        
+        computerMenu.add(computerMoveItem);
+        computerMenu.add(computerBlackItem);
+        
         menuBar.add(gameMenu);
         menuBar.add(settingsMenu);
+        menuBar.add(computerMenu);
         
         setJMenuBar(menuBar);
     }
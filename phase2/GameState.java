@@ -5,7 +5,8 @@ import java.util.List;
 import java.awt.Color;
 
 /**
- * Represents the state of the chess game for saving/loading and undo functionality.
+ * Represents the state of the chess game as written by version 1 save files.
+ * Kept so {@link SaveFormat} can still read those files.
  */
 public class GameState implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,108 @@
+// MoveRecord.java
+
+/**
+ * Records what one move changed so it can be undone without a snapshot
+ * of the whole game.
+ */
+public class MoveRecord {
+    private final int fromRow;
+    private final int fromCol;
+    private final int toRow;
+    private final int toCol;
+    private final ChessPiece moved;
+    private final ChessPiece captured;
+    private final String priorTurn;
+    private final boolean recorded;
+    private final String promotion;
+    private final int companionRow;
+    private final int companionFromCol;
+    private final int companionToCol;
+    private final ChessPiece companion;
+    
+    /**
+     * Constructor for MoveRecord.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param moved The piece that moved
+     * @param captured The piece that was captured, or null
+     * @param priorTurn The turn before the move
+     * @param recorded True if the move was added to the move history
+     */
+    public MoveRecord(int fromRow, int fromCol, int toRow, int toCol,
+                      ChessPiece moved, ChessPiece captured,
+                      String priorTurn, boolean recorded) {
+        this(fromRow, fromCol, toRow, toCol, moved, captured, priorTurn, recorded, null);
+    }
+    
+    /**
+     * Constructor for a move that may promote a pawn.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param moved The piece that moved (the pawn, for a promotion)
+     * @param captured The piece that was captured, or null
+     * @param priorTurn The turn before the move
+     * @param recorded True if the move was added to the move history
+     * @param promotion The type the pawn became, or null
+     */
+    public MoveRecord(int fromRow, int fromCol, int toRow, int toCol,
+                      ChessPiece moved, ChessPiece captured,
+                      String priorTurn, boolean recorded, String promotion) {
+        this(fromRow, fromCol, toRow, toCol, moved, captured, priorTurn, recorded, promotion, -1, -1, -1, null);
+    }
+    
+    /**
+     * Constructor for a move that also moves or takes a second piece on
+     * the mover's starting row: the rook when castling, or the pawn taken
+     * en passant.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param moved The piece that moved (the pawn, for a promotion)
+     * @param captured The piece that stood on the destination, or null
+     * @param priorTurn The turn before the move
+     * @param recorded True if the move was added to the move history
+     * @param promotion The type the pawn became, or null
+     * @param companionRow Row of the second piece, or -1
+     * @param companionFromCol Column the second piece stood on
+     * @param companionToCol Column it moved to, or -1 if it was captured
+     * @param companion The second piece, or null
+     */
+    public MoveRecord(int fromRow, int fromCol, int toRow, int toCol,
+                      ChessPiece moved, ChessPiece captured,
+                      String priorTurn, boolean recorded, String promotion,
+                      int companionRow, int companionFromCol, int companionToCol,
+                      ChessPiece companion) {
+        this.fromRow = fromRow;
+        this.fromCol = fromCol;
+        this.toRow = toRow;
+        this.toCol = toCol;
+        this.moved = moved;
+        this.captured = captured;
+        this.priorTurn = priorTurn;
+        this.recorded = recorded;
+        this.promotion = promotion;
+        this.companionRow = companionRow;
+        this.companionFromCol = companionFromCol;
+        this.companionToCol = companionToCol;
+        this.companion = companion;
+    }
+    
+    public int getFromRow() { return fromRow; }
+    public int getFromCol() { return fromCol; }
+    public int getToRow() { return toRow; }
+    public int getToCol() { return toCol; }
+    public ChessPiece getMoved() { return moved; }
+    public ChessPiece getCaptured() { return captured; }
+    public String getPriorTurn() { return priorTurn; }
+    public boolean isRecorded() { return recorded; }
+    public String getPromotion() { return promotion; }
+    public int getCompanionRow() { return companionRow; }
+    public int getCompanionFromCol() { return companionFromCol; }
+    public int getCompanionToCol() { return companionToCol; }
+    public ChessPiece getCompanion() { return companion; }
+}
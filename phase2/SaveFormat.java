@@ -0,0 +1,213 @@
+// SaveFormat.java
+import java.awt.Color;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes save files through NIO channels.
+ * <p>
+ * Version 2 layout (big-endian):
+ * <pre>
+ *   magic "CHSV" (4) | version (2) | reserved (2)
+ *   light RGB (4) | dark RGB (4) | base turn (1: 0 white, 1 black)
+ *   base board (32: 64 squares, one nibble each, high nibble first)
+ *   move count (4) | moves (2 each: from square | to square &lt;&lt; 6 | promotion &lt;&lt; 12)
+ * </pre>
+ * Nibble codes are 0 for empty, 1–6 for pawn, knight, bishop, rook, queen,
+ * king, plus 8 for black. Promotion codes are 0 for none (a pawn that
+ * reaches the last rank becomes a queen), then 1–4 for knight, bishop,
+ * rook, queen; files written before promotions were stored have 0
+ * there and replay as before. Version 1 files were Java-serialized
+ * {@link GameState} objects and are still readable.
+ */
+public class SaveFormat {
+    /** Current format version. */
+    public static final int VERSION = 2;
+    
+    private static final int MAGIC = 0x43485356; // "CHSV"
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 4 + 4 + 1 + 32 + 4;
+    private static final String[] TYPES = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+    private static final String[] BACK_ROW = {"rook", "knight", "bishop", "queen", "king", "bishop", "knight", "rook"};
+    
+    /**
+     * Writes a game in the current format.
+     * @param game The game to write
+     * @param out The destination channel (left open)
+     * @throws IOException if writing fails
+     */
+    public static void write(SavedGame game, WritableByteChannel out) throws IOException {
+        int[] moves = game.getMoves();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + 2 * moves.length);
+        buf.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+        buf.putInt(game.getLightSquare().getRGB()).putInt(game.getDarkSquare().getRGB());
+        buf.put((byte) (game.getBaseTurn().equals("white") ? 0 : 1));
+        ChessPiece[][] board = game.getBaseBoard();
+        for (int sq = 0; sq < 64; sq += 2) {
+            buf.put((byte) ((code(board[sq / 8][sq % 8]) << 4) | code(board[sq / 8][sq % 8 + 1])));
+        }
+        buf.putInt(moves.length);
+        for (int move : moves) buf.putShort((short) move);
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+    }
+    
+    /**
+     * Reads a game written in any supported version.
+     * @param in The source channel (left open)
+     * @return The saved game
+     * @throws IOException if the file is truncated or not a save file
+     */
+    public static SavedGame read(ReadableByteChannel in) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(in, head, 2);
+        if ((head.get(0) & 0xFF) == 0xAC && (head.get(1) & 0xFF) == 0xED) {
+            // Version 1: Java serialization stream
+            head.flip();
+            InputStream rest = new SequenceInputStream(
+                    new ByteArrayInputStream(head.array(), 0, head.limit()), Channels.newInputStream(in));
+            try {
+                return fromLegacy((GameState) new ObjectInputStream(rest).readObject());
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IOException("Unreadable version 1 save file", e);
+            }
+        }
+        
+        readFully(in, head, HEADER_BYTES);
+        head.flip();
+        if (head.getInt() != MAGIC) throw new IOException("Not a chess save file");
+        int version = head.getShort();
+        if (version != VERSION) throw new IOException("Unsupported save file version " + version);
+        head.getShort(); // reserved
+        Color light = new Color(head.getInt());
+        Color dark = new Color(head.getInt());
+        String turn = head.get() == 0 ? "white" : "black";
+        ChessPiece[][] board = new ChessPiece[8][8];
+        for (int sq = 0; sq < 64; sq += 2) {
+            int b = head.get() & 0xFF;
+            board[sq / 8][sq % 8] = piece(b >>> 4);
+            board[sq / 8][sq % 8 + 1] = piece(b & 15);
+        }
+        int count = head.getInt();
+        // A bad count must not become a huge or negative allocation
+        long bytes = 2L * count;
+        if (count < 0 || bytes > Integer.MAX_VALUE - 8) throw new IOException("Corrupt move count " + count);
+        if (in instanceof SeekableByteChannel) {
+            SeekableByteChannel file = (SeekableByteChannel) in;
+            if (bytes > file.size() - file.position()) throw new IOException("Corrupt move count " + count);
+        }
+        
+        ByteBuffer body = readBody(in, (int) bytes);
+        body.flip();
+        int[] moves = new int[count];
+        ChessPiece[][] replay = new ChessPiece[8][];
+        for (int r = 0; r < 8; r++) replay[r] = board[r].clone();
+        for (int i = 0; i < count; i++) {
+            int move = body.getShort() & 0x7FFF;
+            // Every move must start from an occupied square to be replayable
+            if (!SavedGame.replay(replay, move, i > 0 ? moves[i - 1] : -1)) {
+                throw new IOException("Corrupt move " + (i + 1));
+            }
+            moves[i] = move;
+        }
+        return new SavedGame(board, turn, moves, light, dark);
+    }
+    
+    /**
+     * Returns the standard starting position.
+     * @return A new board with all 32 pieces
+     */
+    public static ChessPiece[][] initialBoard() {
+        ChessPiece[][] board = new ChessPiece[8][8];
+        for (int i = 0; i < 8; i++) {
+            board[0][i] = new ChessPiece(BACK_ROW[i], "black");
+            board[1][i] = new ChessPiece("pawn", "black");
+            board[6][i] = new ChessPiece("pawn", "white");
+            board[7][i] = new ChessPiece(BACK_ROW[i], "white");
+        }
+        return board;
+    }
+    
+    /**
+     * Converts a version 1 snapshot. Its history lines ("white pawn e2 → e4")
+     * name every move, so when replaying them from the start position
+     * reproduces the saved board, the game keeps its full move list.
+     * Otherwise the snapshot becomes the base position with no moves.
+     * @param state The deserialized snapshot
+     * @return The equivalent saved game
+     */
+    private static SavedGame fromLegacy(GameState state) {
+        List<Integer> moves = new ArrayList<>();
+        ChessPiece[][] replay = initialBoard();
+        for (String line : state.getMoveHistory()) {
+            int arrow = line.lastIndexOf(" → ");
+            if (arrow < 2 || line.length() < arrow + 5) break;
+            int fromCol = line.charAt(arrow - 2) - 'a', fromRow = 8 - (line.charAt(arrow - 1) - '0');
+            int toCol = line.charAt(arrow + 3) - 'a', toRow = 8 - (line.charAt(arrow + 4) - '0');
+            if (!onBoard(fromRow, fromCol) || !onBoard(toRow, toCol)) break;
+            int move = SavedGame.packMove(fromRow, fromCol, toRow, toCol);
+            if (!SavedGame.replay(replay, move, moves.isEmpty() ? -1 : moves.get(moves.size() - 1))) break;
+            moves.add(move);
+        }
+        
+        if (moves.size() == state.getMoveHistory().size() && sameBoard(replay, state.getBoard())) {
+            int[] packed = new int[moves.size()];
+            for (int i = 0; i < packed.length; i++) packed[i] = moves.get(i);
+            return new SavedGame(initialBoard(), "white", packed, state.getLightSquare(), state.getDarkSquare());
+        }
+        return new SavedGame(state.getBoard(), state.getCurrentTurn(), new int[0],
+                             state.getLightSquare(), state.getDarkSquare());
+    }
+    
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+    
+    private static boolean sameBoard(ChessPiece[][] a, ChessPiece[][] b) {
+        for (int sq = 0; sq < 64; sq++) {
+            if (code(a[sq / 8][sq % 8]) != code(b[sq / 8][sq % 8])) return false;
+        }
+        return true;
+    }
+    
+    private static int code(ChessPiece piece) {
+        if (piece == null) return 0;
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(piece.getType())) return (i + 1) | (piece.getColor().equals("black") ? 8 : 0);
+        }
+        return 0;
+    }
+    
+    private static ChessPiece piece(int code) {
+        int type = (code & 7) - 1;
+        if (type < 0 || type >= TYPES.length) return null;
+        return new ChessPiece(TYPES[type], (code & 8) != 0 ? "black" : "white");
+    }
+    
+    /**
+     * Reads {@code bytes} bytes, growing the buffer as data arrives so a
+     * stream that ends early never forces a full-size allocation.
+     */
+    private static ByteBuffer readBody(ReadableByteChannel in, int bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Math.min(bytes, 1 << 16));
+        while (true) {
+            readFully(in, buf, buf.capacity());
+            if (buf.capacity() == bytes) return buf;
+            ByteBuffer bigger = ByteBuffer.allocate((int) Math.min(bytes, 2L * buf.capacity()));
+            buf.flip();
+            buf = bigger.put(buf);
+        }
+    }
+    
+    /** Reads until {@code buf} holds at least {@code bytes} bytes. */
+    private static void readFully(ReadableByteChannel in, ByteBuffer buf, int bytes) throws IOException {
+        while (buf.position() < bytes) {
+            if (in.read(buf) < 0) throw new EOFException("Save file is truncated");
+        }
+    }
+}
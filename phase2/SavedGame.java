@@ -0,0 +1,156 @@
+// SavedGame.java
+import java.awt.Color;
+
+/**
+ * Contents of a save file: the position the game started from, the moves
+ * played since, and the board colors. Everything else (history text,
+ * captured pieces, undo records) is rebuilt by replaying the moves.
+ */
+public class SavedGame {
+    private final ChessPiece[][] baseBoard;
+    private final String baseTurn;
+    private final int[] moves;
+    private final Color lightSquare;
+    private final Color darkSquare;
+    
+    /** Promotion piece by code: 0 none, then knight, bishop, rook, queen as in the engine. */
+    static final String[] PROMOTIONS = {null, "knight", "bishop", "rook", "queen"};
+    
+    /**
+     * Constructor for SavedGame.
+     * @param baseBoard The position before the first move
+     * @param baseTurn The side to move in that position
+     * @param moves The moves played, each packed by {@link #packMove}
+     * @param lightSquare Light square color
+     * @param darkSquare Dark square color
+     */
+    public SavedGame(ChessPiece[][] baseBoard, String baseTurn, int[] moves,
+                     Color lightSquare, Color darkSquare) {
+        this.baseBoard = baseBoard;
+        this.baseTurn = baseTurn;
+        this.moves = moves;
+        this.lightSquare = lightSquare;
+        this.darkSquare = darkSquare;
+    }
+    
+    /**
+     * Packs a move into the bits stored per move: from square in the
+     * low six bits, to square in the next six, promotion code above.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @return The packed move
+     */
+    public static int packMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return (fromRow * 8 + fromCol) | ((toRow * 8 + toCol) << 6);
+    }
+    
+    /**
+     * Packs a move that may promote a pawn.
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param promotion The type the pawn becomes, or null
+     * @return The packed move
+     */
+    public static int packMove(int fromRow, int fromCol, int toRow, int toCol, String promotion) {
+        int code = 0;
+        for (int i = 1; i < PROMOTIONS.length; i++) {
+            if (PROMOTIONS[i].equals(promotion)) code = i;
+        }
+        return packMove(fromRow, fromCol, toRow, toCol) | code << 12;
+    }
+    
+    public static int fromRow(int move) { return (move & 63) / 8; }
+    public static int fromCol(int move) { return move & 7; }
+    public static int toRow(int move) { return ((move >>> 6) & 63) / 8; }
+    public static int toCol(int move) { return (move >>> 6) & 7; }
+    /** @return The promotion type of a packed move, or null (a queen if the pawn reaches the last rank) */
+    public static String promotion(int move) { return PROMOTIONS[promotionCode(move)]; }
+    /** @return The promotion code of a packed move: 0 none, 1–4 knight to queen */
+    public static int promotionCode(int move) { return Math.min((move >>> 12) & 7, 4); }
+
+    /**
+     * Finds the rook that castles with a king move: a king moving two
+     * columns along its row takes its own rook from that corner.
+     * @param board The position before the move
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @return The rook's column, or -1 if the move is not castling
+     */
+    static int castlingRookCol(ChessPiece[][] board, int fromRow, int fromCol, int toRow, int toCol) {
+        ChessPiece king = board[fromRow][fromCol];
+        if (king == null || !king.getType().equals("king") || fromRow != toRow || Math.abs(toCol - fromCol) != 2) {
+            return -1;
+        }
+        int rookCol = toCol > fromCol ? 7 : 0;
+        ChessPiece rook = board[fromRow][rookCol];
+        boolean ownRook = rook != null && rook.getType().equals("rook") && rook.getColor().equals(king.getColor());
+        return ownRook ? rookCol : -1;
+    }
+
+    /**
+     * Tells whether a pawn move captures en passant: it moves diagonally
+     * onto an empty square, beside an enemy pawn that the previous move
+     * advanced two squares. The captured pawn is at
+     * {@code [fromRow][toCol]}.
+     * @param board The position before the move
+     * @param fromRow Starting row
+     * @param fromCol Starting column
+     * @param toRow Destination row
+     * @param toCol Destination column
+     * @param previous The move played just before, packed, or -1 if none
+     * @return True if the move is an en-passant capture
+     */
+    static boolean isEnPassant(ChessPiece[][] board, int fromRow, int fromCol, int toRow, int toCol, int previous) {
+        ChessPiece pawn = board[fromRow][fromCol];
+        if (previous < 0 || pawn == null || !pawn.getType().equals("pawn")
+                || fromCol == toCol || board[toRow][toCol] != null) {
+            return false;
+        }
+        ChessPiece beside = board[fromRow][toCol];
+        return beside != null && beside.getType().equals("pawn") && !beside.getColor().equals(pawn.getColor())
+                && toRow(previous) == fromRow && toCol(previous) == toCol
+                && Math.abs(fromRow(previous) - fromRow) == 2;
+    }
+
+    /**
+     * Plays a packed move on a bare board by the same rules as the game:
+     * castling moves the rook, en passant removes the pawn beside, and a
+     * pawn reaching the last rank is promoted (to a queen if the move
+     * names no piece).
+     * @param board The board to update
+     * @param move The packed move
+     * @param previous The move played just before, packed, or -1 if none
+     * @return False, leaving the board unchanged, if the from square is empty
+     */
+    static boolean replay(ChessPiece[][] board, int move, int previous) {
+        int fromRow = fromRow(move), fromCol = fromCol(move), toRow = toRow(move), toCol = toCol(move);
+        ChessPiece piece = board[fromRow][fromCol];
+        if (piece == null) return false;
+        int rookCol = castlingRookCol(board, fromRow, fromCol, toRow, toCol);
+        if (rookCol >= 0) {
+            board[fromRow][(fromCol + toCol) / 2] = board[fromRow][rookCol];
+            board[fromRow][rookCol] = null;
+        } else if (isEnPassant(board, fromRow, fromCol, toRow, toCol, previous)) {
+            board[fromRow][toCol] = null;
+        }
+        if (piece.getType().equals("pawn") && (toRow == 0 || toRow == 7)) {
+            String promotion = promotion(move);
+            piece = new ChessPiece(promotion != null ? promotion : "queen", piece.getColor());
+        }
+        board[toRow][toCol] = piece;
+        board[fromRow][fromCol] = null;
+        return true;
+    }
+
+    public ChessPiece[][] getBaseBoard() { return baseBoard; }
+    public String getBaseTurn() { return baseTurn; }
+    public int[] getMoves() { return moves; }
+    public Color getLightSquare() { return lightSquare; }
+    public Color getDarkSquare() { return darkSquare; }
+}
@@ -0,0 +1,128 @@
+import bench.Benchmark;
+import bench.Fixtures;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Micro-benchmarks for the phase 2 state path: the {@link GameState}
+ * deep-copy constructor, the binary save/load format used by
+ * {@link ChessBoard}, and the version 1 Java serialization it replaced.
+ * <p>
+ * Usage: {@code java StateBenchmark [name-filter ...]}
+ */
+public class StateBenchmark {
+
+    /**
+     * Runs every benchmark whose name contains one of the filters.
+     * @param args Optional name filters, e.g. {@code copy}
+     */
+    public static void main(String[] args) throws Exception {
+        String[][] phases = {
+            {"opening", Fixtures.OPENING},
+            {"middlegame", Fixtures.MIDDLEGAME},
+            {"endgame", Fixtures.ENDGAME},
+        };
+        for (String[] phase : phases) {
+            Snapshot s = replay(phase[1]);
+
+            String name = "GameState.copy/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Benchmark.run(name, () -> new GameState(s.board, s.turn, s.history,
+                        s.whiteCaptured, s.blackCaptured, s.light, s.dark).getMoveHistory().size());
+            }
+
+            SavedGame game = new SavedGame(SaveFormat.initialBoard(), "white", s.moves, s.light, s.dark);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SaveFormat.write(game, Channels.newChannel(bytes));
+            byte[] saved = bytes.toByteArray();
+
+            name = "saveGame/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Benchmark.run(name, () -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(saved.length);
+                    SaveFormat.write(game, Channels.newChannel(out));
+                    return out.size();
+                });
+            }
+
+            name = "loadGame/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Benchmark.run(name, () -> SaveFormat.read(
+                        Channels.newChannel(new ByteArrayInputStream(saved))).getMoves().length);
+            }
+
+            GameState state = new GameState(s.board, s.turn, s.history,
+                    s.whiteCaptured, s.blackCaptured, s.light, s.dark);
+            bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(state);
+            }
+            byte[] legacy = bytes.toByteArray();
+
+            name = "saveGame.v1/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Benchmark.run(name, () -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(legacy.length);
+                    new ObjectOutputStream(out).writeObject(state);
+                    return out.size();
+                });
+            }
+
+            name = "loadGame.v1/" + phase[0];
+            if (Benchmark.selected(args, name)) {
+                Benchmark.run(name, () -> ((GameState) new ObjectInputStream(
+                        new ByteArrayInputStream(legacy)).readObject()).getMoveHistory().size());
+            }
+            System.out.println("  save size " + phase[0] + ": " + saved.length
+                    + " bytes (v1: " + legacy.length + " bytes)");
+        }
+    }
+
+    /** Phase 2 game state reached by replaying a fixture move list. */
+    private static class Snapshot {
+        ChessPiece[][] board = new ChessPiece[8][8];
+        String turn = "white";
+        List<String> history = new ArrayList<>();
+        int[] moves = new int[0];
+        List<ChessPiece> whiteCaptured = new ArrayList<>();
+        List<ChessPiece> blackCaptured = new ArrayList<>();
+        Color light = new Color(240, 217, 181);
+        Color dark = new Color(181, 136, 99);
+    }
+
+    /**
+     * Replays coordinate moves the same way {@code ChessBoard.makeMove} records them.
+     * @param moves Space-separated moves such as {@code "e2e4 e7e5"}
+     * @return The resulting state
+     */
+    private static Snapshot replay(String moves) {
+        Snapshot s = new Snapshot();
+        s.board = SaveFormat.initialBoard();
+        String[] list = moves.trim().split("\\s+");
+        s.moves = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            String m = list[i];
+            int fromCol = m.charAt(0) - 'a', fromRow = 8 - (m.charAt(1) - '0');
+            int toCol = m.charAt(2) - 'a', toRow = 8 - (m.charAt(3) - '0');
+            ChessPiece moving = s.board[fromRow][fromCol];
+            ChessPiece taken = s.board[toRow][toCol];
+            if (taken != null) {
+                (moving.getColor().equals("white") ? s.whiteCaptured : s.blackCaptured).add(taken);
+            }
+            s.board[toRow][toCol] = moving;
+            s.board[fromRow][fromCol] = null;
+            s.moves[i] = SavedGame.packMove(fromRow, fromCol, toRow, toCol);
+            s.history.add(moving.getColor() + " " + moving.getType() + " " + m.substring(0, 2)
+                    + " → " + m.substring(2, 4));
+            s.turn = s.turn.equals("white") ? "black" : "white";
+        }
+        return s;
+    }
+}
@@ -1,8 +1,9 @@
 package pieces;
 
+import board.Attacks;
+import board.Board;
+import board.Move;
 import board.Position;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents a king piece in chess.
@@ -20,6 +21,12 @@ public class King extends Piece {
         super(color, position);
     }
 
+    /** @return {@link Piece#KING} */
+    @Override
+    public int getType() {
+        return KING;
+    }
+
     /**
      * Checks if the king can move to the given position.
      *
@@ -39,12 +46,42 @@ public class King extends Piece {
     }
 
     /**
-     * Returns an empty move list (not yet implemented).
+     * Writes the king's pseudo-legal moves into {@code moves}, including
+     * castling when the right is held, the squares between king and rook
+     * are empty and the king does not start in, pass through or land on
+     * an attacked square.
      *
-     * @return empty list
+     * @param board current board
+     * @param targets mask of allowed destination squares
+     * @param moves output buffer
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
      */
     @Override
-    public List<Position> possibleMoves() {
-        return new ArrayList<>();
+    public int possibleMoves(Board board, long targets, int[] moves, int count) {
+        int from = position.toSquare();
+        long dest = Attacks.king(from) & targets & ~board.getOccupancy(side);
+        count = addMoves(from, dest, board.getOccupancy(side ^ 1), moves, count);
+
+        // castling: home squares are e1/h1/a1 for white, e8/h8/a8 for black
+        int home = (side == 0) ? 60 : 4;
+        int rights = board.getCastlingRights() >>> (side * 2);
+        if (from != home || (rights & 3) == 0) return count;
+        long occupied = board.getOccupied();
+        long rooks = board.getBitboard(side, ROOK);
+        int enemy = side ^ 1;
+        if ((rights & 1) != 0 && (targets & (1L << (home + 2))) != 0
+                && (occupied & (3L << (home + 1))) == 0 && (rooks & (1L << (home + 3))) != 0
+                && !board.isSquareAttacked(home, enemy) && !board.isSquareAttacked(home + 1, enemy)
+                && !board.isSquareAttacked(home + 2, enemy)) {
+            moves[count++] = Move.encode(home, home + 2, Move.KING_CASTLE);
+        }
+        if ((rights & 2) != 0 && (targets & (1L << (home - 2))) != 0
+                && (occupied & (7L << (home - 3))) == 0 && (rooks & (1L << (home - 4))) != 0
+                && !board.isSquareAttacked(home, enemy) && !board.isSquareAttacked(home - 1, enemy)
+                && !board.isSquareAttacked(home - 2, enemy)) {
+            moves[count++] = Move.encode(home, home - 2, Move.QUEEN_CASTLE);
+        }
+        return count;
     }
 }
@@ -1,8 +1,9 @@
 package pieces;
 
+import board.Attacks;
+import board.Board;
+import board.Move;
 import board.Position;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents a pawn piece in chess.
@@ -20,6 +21,12 @@ public class Pawn extends Piece {
         super(color, position);
     }
 
+    /** @return {@link Piece#PAWN} */
+    @Override
+    public int getType() {
+        return PAWN;
+    }
+
     /**
      * Checks if the pawn can move to the given position.
      *
@@ -60,12 +67,55 @@ public class Pawn extends Piece {
     }
 
     /**
-     * Returns an empty move list (not yet implemented).
+     * Writes the pawn's pseudo-legal moves into {@code moves}, including
+     * en-passant captures and one move per promotion piece (queen last).
      *
-     * @return empty list
+     * @param board current board
+     * @param targets mask of allowed destination squares; an en-passant
+     *        capture is kept when the square it lands on is included
+     * @param moves output buffer
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
      */
     @Override
-    public List<Position> possibleMoves() {
-        return new ArrayList<>();
+    public int possibleMoves(Board board, long targets, int[] moves, int count) {
+        int from = position.toSquare();
+        long empty = ~board.getOccupied();
+        int forward = (side == 0) ? from - 8 : from + 8;   // white up, black down
+        int startRow = (side == 0) ? 6 : 1;
+        int promoRow = (side == 0) ? 1 : 6;                 // row before the last
+
+        // forward moves onto empty squares
+        if (forward >= 0 && forward < 64 && (empty & (1L << forward)) != 0) {
+            if ((targets & (1L << forward)) != 0) {
+                if (position.row == promoRow) count = addPromotions(from, forward, Move.QUIET, moves, count);
+                else moves[count++] = Move.encode(from, forward, Move.QUIET);
+            }
+            int twoStep = (side == 0) ? forward - 8 : forward + 8;
+            if (position.row == startRow && (empty & targets & (1L << twoStep)) != 0) {
+                moves[count++] = Move.encode(from, twoStep, Move.DOUBLE_PUSH);
+            }
+        }
+
+        // diagonal captures
+        long attacks = Attacks.pawn(side, from);
+        int ep = board.getEnPassantSquare();
+        if (ep >= 0 && (attacks & targets & (1L << ep)) != 0) {
+            moves[count++] = Move.encode(from, ep, Move.EN_PASSANT);
+        }
+        long enemies = board.getOccupancy(side ^ 1);
+        if (position.row != promoRow) return addMoves(from, attacks & enemies & targets, enemies, moves, count);
+        for (long dest = attacks & enemies & targets; dest != 0; dest &= dest - 1) {
+            count = addPromotions(from, Long.numberOfTrailingZeros(dest), Move.CAPTURE, moves, count);
+        }
+        return count;
+    }
+
+    /** Appends the four promotions of one pawn move, knight first and queen last. */
+    private static int addPromotions(int from, int to, int flags, int[] moves, int count) {
+        for (int promo = 0; promo < 4; promo++) {
+            moves[count++] = Move.encode(from, to, flags | Move.PROMOTION | promo);
+        }
+        return count;
     }
 }
@@ -1,16 +1,33 @@
 package pieces;
 
+import board.Board;
+import board.Move;
 import board.Position;
-import java.util.List;
 
 /**
  * Base class for all chess pieces.
  */
 public abstract class Piece {
 
+    /** Type index of a pawn in the board's bitboard tables. */
+    public static final int PAWN = 0;
+    /** Type index of a knight. */
+    public static final int KNIGHT = 1;
+    /** Type index of a bishop. */
+    public static final int BISHOP = 2;
+    /** Type index of a rook. */
+    public static final int ROOK = 3;
+    /** Type index of a queen. */
+    public static final int QUEEN = 4;
+    /** Type index of a king. */
+    public static final int KING = 5;
+
     /** Piece color ("white" or "black"). */
     protected String color;
 
+    /** Side index derived from the color (0 = white, 1 = black). */
+    protected int side;
+
     /** Current position on the board. */
     protected Position position;
 
@@ -22,10 +39,25 @@ public abstract class Piece {
      */
     public Piece(String color, Position position) {
         this.color = color.toLowerCase();
+        this.side = this.color.equals("white") ? 0 : 1;
         this.position = position;
     }
 
-    public abstract List<Position> possibleMoves();
+    /**
+     * Writes this piece's pseudo-legal moves into a caller-owned buffer.
+     * Moves are packed with {@link Move#encode} and nothing is allocated,
+     * so the buffer can be reused across calls.
+     *
+     * @param board current board
+     * @param targets mask of allowed destination squares
+     * @param moves output buffer
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
+     */
+    public abstract int possibleMoves(Board board, long targets, int[] moves, int count);
+
+    /** @return type index ({@link #PAWN} through {@link #KING}) */
+    public abstract int getType();
 
     /**
      * Checks if the move is valid for this piece.
@@ -39,6 +71,25 @@ public abstract class Piece {
         return true;
     }
 
+    /**
+     * Appends one move per destination bit, flagging captures of enemy pieces.
+     *
+     * @param from origin square
+     * @param dest destination bitboard
+     * @param enemies squares held by the opponent
+     * @param moves output buffer
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
+     */
+    protected static int addMoves(int from, long dest, long enemies, int[] moves, int count) {
+        for (; dest != 0; dest &= dest - 1) {
+            int to = Long.numberOfTrailingZeros(dest);
+            int flags = (enemies & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET;
+            moves[count++] = Move.encode(from, to, flags);
+        }
+        return count;
+    }
+
     /**
      * Updates the piece's position.
      *
@@ -51,6 +102,9 @@ public abstract class Piece {
     /** @return piece color */
     public String getColor() { return color; }
 
+    /** @return side index (0 = white, 1 = black) */
+    public int getSide() { return side; }
+
     /** @return piece position */
     public Position getPosition() { return position; }
 
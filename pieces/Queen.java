@@ -1,8 +1,8 @@
 package pieces;
 
+import board.Attacks;
+import board.Board;
 import board.Position;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents a queen piece in chess.
@@ -20,6 +20,12 @@ public class Queen extends Piece {
         super(color, position);
     }
 
+    /** @return {@link Piece#QUEEN} */
+    @Override
+    public int getType() {
+        return QUEEN;
+    }
+
     /**
      * Checks if the queen can move to the given position.
      *
@@ -53,12 +59,18 @@ public class Queen extends Piece {
     }
 
     /**
-     * Returns an empty move list (not yet implemented).
+     * Writes the queen's pseudo-legal moves into {@code moves}.
      *
-     * @return empty list
+     * @param board current board
+     * @param targets mask of allowed destination squares
+     * @param moves output buffer
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
      */
     @Override
-    public List<Position> possibleMoves() {
-        return new ArrayList<>();
+    public int possibleMoves(Board board, long targets, int[] moves, int count) {
+        int from = position.toSquare();
+        long dest = Attacks.queen(from, board.getOccupied()) & targets & ~board.getOccupancy(side);
+        return addMoves(from, dest, board.getOccupancy(side ^ 1), moves, count);
     }
 }
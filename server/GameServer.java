@@ -0,0 +1,257 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless server hosting many concurrent {@link game.Game} sessions over
+ * a local TCP port or Unix-domain socket, one thread per connection.
+ * <p>
+ * Connection threads are virtual threads when the running JDK provides
+ * them (Java 21+), found by reflection so the code also builds and runs
+ * on Java 17, where it falls back to a cached pool of platform threads.
+ * Blocking reads and writes stay cheap either way since every session
+ * owns its thread.
+ * <p>
+ * Backpressure works at two levels. A semaphore caps the number of open
+ * sessions; connections beyond it get {@code err busy} and are closed.
+ * Within a session, a client that does not read its replies stalls its
+ * own thread, which then stops reading its commands; housekeeping closes
+ * sessions whose writes stay blocked or which stay idle too long.
+ */
+public class GameServer implements AutoCloseable {
+
+    /** Default TCP port. */
+    public static final int DEFAULT_PORT = 7777;
+
+    /** Default cap on concurrent sessions. */
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+
+    /** A reply blocked this long means the client is not reading. */
+    private static final long WRITE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** Pause after a failed accept (e.g. out of file descriptors), so the loop does not spin. */
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+
+    /** Sessions with no command for this long are closed. */
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    private final ServerSocketChannel serverChannel;
+    private final Semaphore slots;
+    private final ExecutorService connections;
+    private final ScheduledExecutorService housekeeping;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private final ServerMetrics metrics = new ServerMetrics();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Binds the server and starts accepting connections.
+     *
+     * @param address     {@link InetSocketAddress} or {@link UnixDomainSocketAddress} to listen on
+     * @param maxSessions cap on concurrent sessions
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(SocketAddress address, int maxSessions) throws IOException {
+        serverChannel = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        slots = new Semaphore(maxSessions);
+        connections = newConnectionExecutor();
+        housekeeping = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "server-housekeeping");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeping.scheduleWithFixedDelay(this::closeStalledSessions, 1, 1, TimeUnit.SECONDS);
+        acceptor = new Thread(this::acceptLoop, "server-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Creates the per-connection executor: one virtual thread per task if
+     * the JDK has them, otherwise a cached pool of daemon threads.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(null, r, "server-session", 256 * 1024);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * @return address the server listens on
+     * @throws IOException if the server is closed
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return serverChannel.getLocalAddress();
+    }
+
+    /** @return live counters */
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (closed) return;
+                System.err.println("accept failed: " + e.getMessage());
+                try {
+                    Thread.sleep(ACCEPT_RETRY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                continue;
+            }
+            if (!slots.tryAcquire()) {
+                metrics.sessionRejected();
+                refuse(channel);
+                continue;
+            }
+            Session session = new Session(this, channel);
+            sessions.add(session);
+            metrics.sessionOpened();
+            try {
+                connections.execute(session);
+            } catch (RuntimeException e) {
+                session.close();
+                sessionEnded(session);
+            }
+        }
+    }
+
+    /** Tells a client the server is full and hangs up. */
+    private static void refuse(SocketChannel channel) {
+        try (channel) {
+            channel.configureBlocking(false);
+            channel.write(ByteBuffer.wrap("err busy\n".getBytes(StandardCharsets.US_ASCII)));
+        } catch (IOException ignored) {
+            // client already gone
+        }
+    }
+
+    /** Called by a session's thread when it finishes. */
+    void sessionEnded(Session session) {
+        if (sessions.remove(session)) {
+            metrics.sessionClosed();
+            slots.release();
+        }
+    }
+
+    /** Closes sessions whose client stopped reading replies or went quiet. */
+    private void closeStalledSessions() {
+        long now = System.nanoTime();
+        for (Session session : sessions) {
+            long writeStarted = session.getWriteStarted();
+            boolean stalled = writeStarted != 0 && now - writeStarted > WRITE_TIMEOUT_NANOS;
+            if (stalled || now - session.getLastActivity() > IDLE_TIMEOUT_NANOS) {
+                metrics.sessionTimedOut();
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Prints a metrics line at a fixed interval until the server closes.
+     *
+     * @param seconds interval between reports
+     */
+    public void reportEvery(int seconds) {
+        housekeeping.scheduleAtFixedRate(() -> System.out.println(metrics.report()), seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /** Stops accepting, closes every session and waits briefly for their threads. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverChannel.close();
+        for (Session session : sessions) session.close();
+        housekeeping.shutdownNow();
+        connections.shutdown();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+            acceptor.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     * <p>
+     * Usage: {@code java server.GameServer [port <n> | unix <path>] [max-sessions <n>] [report <seconds>]}
+     *
+     * @param args listen address, session cap and report interval
+     * @throws IOException if the address cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        Path socketFile = null;
+        int maxSessions = DEFAULT_MAX_SESSIONS, report = 5;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i].toLowerCase()) {
+                case "port":
+                    address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[i + 1]));
+                    break;
+                case "unix":
+                    socketFile = Paths.get(args[i + 1]);
+                    Files.deleteIfExists(socketFile);
+                    address = UnixDomainSocketAddress.of(socketFile);
+                    break;
+                case "max-sessions":
+                    maxSessions = Integer.parseInt(args[i + 1]);
+                    break;
+                case "report":
+                    report = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.out.println("Usage: java server.GameServer [port <n> | unix <path>] [max-sessions <n>] [report <seconds>]");
+                    return;
+            }
+        }
+
+        GameServer server = new GameServer(address, maxSessions);
+        if (report > 0) server.reportEvery(report);
+        Path cleanup = socketFile;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                if (cleanup != null) Files.deleteIfExists(cleanup);
+            } catch (IOException ignored) {
+                // exiting anyway
+            }
+        }));
+        System.out.println("Listening on " + server.getLocalAddress() + " (max " + maxSessions + " sessions)");
+    }
+}
@@ -0,0 +1,103 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a {@link GameServer}, updated from every session thread
+ * without locking.
+ */
+public class ServerMetrics {
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final LongAdder sessionsOpened = new LongAdder();
+    private final LongAdder sessionsRejected = new LongAdder();
+    private final LongAdder sessionsTimedOut = new LongAdder();
+    private final LongAdder movesPlayed = new LongAdder();
+    private final LongAdder movesRejected = new LongAdder();
+
+    /** Totals at the previous {@link #report}, to turn them into rates. */
+    private long lastNanos = System.nanoTime(), lastOpened, lastMoves;
+
+    void sessionOpened() {
+        activeSessions.incrementAndGet();
+        sessionsOpened.increment();
+    }
+
+    void sessionClosed() {
+        activeSessions.decrementAndGet();
+    }
+
+    void sessionRejected() {
+        sessionsRejected.increment();
+    }
+
+    void sessionTimedOut() {
+        sessionsTimedOut.increment();
+    }
+
+    void movePlayed() {
+        movesPlayed.increment();
+    }
+
+    void moveRejected() {
+        movesRejected.increment();
+    }
+
+    /** @return sessions currently connected */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /** @return sessions accepted since start */
+    public long getSessionsOpened() {
+        return sessionsOpened.sum();
+    }
+
+    /** @return connections turned away because the server was full */
+    public long getSessionsRejected() {
+        return sessionsRejected.sum();
+    }
+
+    /** @return sessions closed for being idle or not reading their replies */
+    public long getSessionsTimedOut() {
+        return sessionsTimedOut.sum();
+    }
+
+    /** @return legal moves played over all sessions */
+    public long getMovesPlayed() {
+        return movesPlayed.sum();
+    }
+
+    /** @return move commands refused as malformed or illegal */
+    public long getMovesRejected() {
+        return movesRejected.sum();
+    }
+
+    /**
+     * Formats the current totals plus session and move rates since the
+     * previous call. Meant for one reporting thread.
+     *
+     * @return one-line report
+     */
+    public synchronized String report() {
+        long now = System.nanoTime(), opened = getSessionsOpened(), moves = getMovesPlayed();
+        double seconds = Math.max(1, now - lastNanos) / 1e9;
+        String line = String.format(
+                "sessions %d active, %.1f opened/s, %d rejected, %d timed out | moves %.1f/s, %d played, %d refused",
+                getActiveSessions(), (opened - lastOpened) / seconds, getSessionsRejected(), getSessionsTimedOut(),
+                (moves - lastMoves) / seconds, moves, getMovesRejected());
+        lastNanos = now;
+        lastOpened = opened;
+        lastMoves = moves;
+        return line;
+    }
+
+    /** @return cumulative totals in one line */
+    @Override
+    public String toString() {
+        return "sessions " + getActiveSessions() + " active, " + getSessionsOpened() + " opened, "
+                + getSessionsRejected() + " rejected, " + getSessionsTimedOut() + " timed out | moves "
+                + getMovesPlayed() + " played, " + getMovesRejected() + " refused";
+    }
+}
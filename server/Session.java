@@ -0,0 +1,194 @@
+package server;
+
+import board.Board;
+import board.Position;
+import game.Game;
+import game.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One client connection of a {@link GameServer}, hosting one {@link Game}.
+ * <p>
+ * The session runs on its own thread and uses plain blocking I/O: it
+ * reads a command line, answers with one line and reads the next. Replies
+ * are flushed only when no further command is already buffered, so
+ * pipelined commands share a write. A client that stops reading its
+ * replies eventually blocks the write; the session then stops reading
+ * too, TCP flow control pushes back on the client, and the server's
+ * housekeeping closes the session once the write has stalled too long.
+ * <p>
+ * Protocol, one command per line:
+ * <pre>
+ * move e2e4 | move e2 e4   play a move     -> ok [check|checkmate] | err &lt;reason&gt;
+ *   (e7e8n promotes to n, b, r or q; the default is a queen)
+ * fen                      position        -> ok &lt;fen&gt;
+ * turn                     side to move    -> ok white|black
+ * new                      restart         -> ok
+ * stats                    server metrics  -> ok &lt;metrics&gt;
+ * quit                     disconnect      -> ok bye
+ * </pre>
+ */
+class Session implements Runnable {
+
+    /** Longest accepted command line in bytes. */
+    static final int MAX_LINE = 128;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private Game game;
+
+    /** Buffer for the current command line. */
+    private final byte[] line = new byte[MAX_LINE];
+
+    /** {@link System#nanoTime} of the last command received. */
+    private volatile long lastActivity = System.nanoTime();
+
+    /** {@link System#nanoTime} when the pending flush started, or 0 when not writing. */
+    private volatile long writeStarted;
+
+    Session(GameServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+        newGame();
+    }
+
+    private void newGame() {
+        Board board = new Board();
+        board.setupClassic();
+        game = new Game(board, new Player("white"), new Player("black"));
+    }
+
+    long getLastActivity() {
+        return lastActivity;
+    }
+
+    long getWriteStarted() {
+        return writeStarted;
+    }
+
+    /** Closes the connection; a blocked read or write on it fails at once. */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    @Override
+    public void run() {
+        try (InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 4096);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 4096)) {
+            send(out, "ok ready");
+            flush(out);
+            while (true) {
+                int len = readLine(in);
+                if (len < 0) break;
+                lastActivity = System.nanoTime();
+                String reply = len > MAX_LINE ? "err line too long" : handle(new String(line, 0, len, StandardCharsets.US_ASCII).trim());
+                send(out, reply);
+                if (in.available() == 0) flush(out);
+                if (reply.equals("ok bye")) break;
+            }
+            flush(out);
+        } catch (IOException e) {
+            // client went away or was closed by housekeeping
+        } finally {
+            close();
+            server.sessionEnded(this);
+        }
+    }
+
+    /**
+     * Reads one line into {@link #line}.
+     *
+     * @return its length without the line break, {@code MAX_LINE + 1} if it
+     *         was too long (the rest is skipped), or -1 at end of stream
+     */
+    private int readLine(InputStream in) throws IOException {
+        int len = 0;
+        for (int b = in.read(); ; b = in.read()) {
+            if (b < 0) return len == 0 ? -1 : Math.min(len, MAX_LINE + 1);
+            if (b == '\n') return Math.min(len, MAX_LINE + 1);
+            if (b == '\r') continue;
+            if (len < MAX_LINE) line[len] = (byte) b;
+            len++;
+        }
+    }
+
+    /** Executes one command and returns the reply line. */
+    private String handle(String command) {
+        if (command.isEmpty()) return "err empty command";
+        String lower = command.toLowerCase();
+        if (lower.startsWith("move ")) return move(lower.substring(5).trim());
+        switch (lower) {
+            case "fen":   return "ok " + game.getBoard().getFen();
+            case "turn":  return "ok " + game.getCurrentTurn();
+            case "new":   newGame(); return "ok";
+            case "stats": return "ok " + server.getMetrics();
+            case "quit":  return "ok bye";
+            default:      return "err unknown command";
+        }
+    }
+
+    /** Plays a move given as {@code e2e4}, {@code e2 e4} or {@code e7e8n}. */
+    private String move(String text) {
+        String squares = text.replace(" ", "");
+        if (squares.length() < 4 || squares.length() > 5) {
+            server.getMetrics().moveRejected();
+            return "err bad move format";
+        }
+        Position from = square(squares.charAt(0), squares.charAt(1));
+        Position to = square(squares.charAt(2), squares.charAt(3));
+        // the promotion letter maps to the piece type, as in UciFrontEnd
+        int promotion = squares.length() == 5 ? "nbrq".indexOf(squares.charAt(4)) + 1 : -1;
+        if (from == null || to == null || promotion == 0) {
+            server.getMetrics().moveRejected();
+            return "err bad move format";
+        }
+        Game.MoveResult result = game.submitMove(from, to, promotion);
+        switch (result) {
+            case OK:        server.getMetrics().movePlayed(); return "ok";
+            case CHECK:     server.getMetrics().movePlayed(); return "ok check";
+            case CHECKMATE: server.getMetrics().movePlayed(); return "ok checkmate";
+            default:
+                server.getMetrics().moveRejected();
+                return "err " + result.name().toLowerCase().replace('_', ' ');
+        }
+    }
+
+    /** @return square for a file letter and rank digit, or null if out of range */
+    private static Position square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return null;
+        return Position.of('8' - rank, file - 'a');
+    }
+
+    /** Buffers a reply; a full buffer writes through, so this is timed like a flush. */
+    private void send(OutputStream out, String reply) throws IOException {
+        writeStarted = System.nanoTime();
+        try {
+            out.write(reply.getBytes(StandardCharsets.US_ASCII));
+            out.write('\n');
+        } finally {
+            writeStarted = 0;
+        }
+    }
+
+    /** Flushes replies, marking the write so housekeeping can spot a stalled client. */
+    private void flush(OutputStream out) throws IOException {
+        writeStarted = System.nanoTime();
+        try {
+            out.flush();
+        } finally {
+            writeStarted = 0;
+        }
+    }
+}
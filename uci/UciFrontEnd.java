@@ -0,0 +1,371 @@
+package uci;
+
+import board.Board;
+import board.Move;
+import engine.Search;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import nnue.Network;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Universal Chess Interface front end over {@link Board} and {@link Search}.
+ * <p>
+ * Supported commands: {@code uci}, {@code isready}, {@code ucinewgame},
+ * {@code setoption name Hash value <mb>},
+ * {@code setoption name EvalFile value <path>} (empty for the built-in evaluation),
+ * {@code position startpos|fen <fen> [moves ...]},
+ * {@code go [depth n] [movetime ms] [nodes n] [wtime/btime/winc/binc/movestogo] [infinite|ponder]},
+ * {@code stop} and {@code quit}.
+ * <p>
+ * GUIs resend the whole game with every {@code position} command. The
+ * front end keeps the board of the previous command and compares the
+ * new text with the old: when only moves were appended, just those are
+ * parsed and played, and when moves were taken back, they are unmade.
+ * The board is rebuilt only when the start position changes, so the
+ * cost per command does not grow with the length of the game.
+ * <p>
+ * {@code go} searches on a background thread, leaving the input loop free
+ * to answer {@code isready} and {@code stop} while it runs. After
+ * {@code go infinite} or {@code go ponder}, {@code bestmove} is held back
+ * until {@code stop} or {@code quit}, even if the search ends by itself.
+ */
+public class UciFrontEnd {
+
+    /** Engine name reported to {@code uci}. */
+    private static final String NAME = "ChessBuilders";
+
+    /** Default transposition table size in megabytes. */
+    private static final int DEFAULT_HASH_MB = 16;
+
+    /** Moves assumed left in the game when the GUI does not say. */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Board board = new Board();
+    private final int[] moveBuffer = new int[Board.MAX_MOVES];
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "uci-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private TranspositionTable tt = new TranspositionTable(DEFAULT_HASH_MB);
+    private Search search = new Search(tt);
+    private Network network;
+    private Future<?> running;
+
+    /** Holds back the {@code bestmove} of an infinite search until released, or null. */
+    private CountDownLatch bestMoveHold;
+
+    /** Start position text of the current board ({@code startpos} or {@code fen ...}). */
+    private String base = "";
+
+    /** Moves text of the last {@code position} command that is on the board. */
+    private String played = "";
+
+    /**
+     * Creates a front end.
+     *
+     * @param in  command input
+     * @param out reply output
+     */
+    public UciFrontEnd(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+        board.setupClassic();
+        search.setIterationListener(this::info);
+    }
+
+    /**
+     * Reads and executes commands until {@code quit} or end of input.
+     *
+     * @throws IOException if reading the input fails
+     */
+    public void run() throws IOException {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            if (!execute(line.trim())) break;
+        }
+        stopSearch();
+        searchThread.shutdown();
+    }
+
+    /**
+     * Executes one command.
+     *
+     * @param line command text
+     * @return false if the command was {@code quit}
+     */
+    boolean execute(String line) {
+        int space = line.indexOf(' ');
+        String command = space < 0 ? line : line.substring(0, space);
+        String args = space < 0 ? "" : line.substring(space + 1).trim();
+        switch (command) {
+            case "uci":
+                out.println("id name " + NAME);
+                out.println("id author ChessBuilders team");
+                out.println("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max 4096");
+                out.println("option name EvalFile type string default <empty>");
+                out.println("uciok");
+                break;
+            case "isready":
+                out.println("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                tt.clear();
+                setPosition("startpos", "");
+                break;
+            case "setoption":
+                setOption(args);
+                break;
+            case "position":
+                stopSearch();
+                position(args);
+                break;
+            case "go":
+                stopSearch();
+                go(args);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "quit":
+                return false;
+            default:
+                if (!command.isEmpty()) out.println("info string unknown command " + command);
+        }
+        return true;
+    }
+
+    private void setOption(String args) {
+        // name <id> value <x>
+        int value = args.indexOf(" value ");
+        String name = value < 0 ? args : args.substring(0, value);
+        if (name.startsWith("name ")) name = name.substring(5).trim();
+        if (name.equalsIgnoreCase("Hash") && value >= 0) {
+            int hashMb;
+            try {
+                hashMb = Math.max(1, Integer.parseInt(args.substring(value + 7).trim()));
+            } catch (NumberFormatException e) {
+                out.println("info string bad Hash value");
+                return;
+            }
+            stopSearch();
+            tt = new TranspositionTable(hashMb);
+            search = new Search(tt);
+            search.setIterationListener(this::info);
+            search.setNetwork(network);
+        } else if (name.equalsIgnoreCase("EvalFile") && value >= 0) {
+            String path = args.substring(value + 7).trim();
+            stopSearch();
+            if (path.isEmpty() || path.equals("<empty>")) {
+                network = null;
+            } else {
+                try {
+                    network = Network.load(Paths.get(path));
+                } catch (IOException e) {
+                    out.println("info string cannot load EvalFile: " + e.getMessage());
+                    return;
+                }
+            }
+            search.setNetwork(network);
+        } else {
+            out.println("info string unknown option " + name);
+        }
+    }
+
+    /** Handles {@code position startpos|fen <fen> [moves ...]}. */
+    private void position(String args) {
+        int movesAt = args.indexOf("moves");
+        String start = (movesAt < 0 ? args : args.substring(0, movesAt)).trim();
+        String moves = movesAt < 0 ? "" : args.substring(movesAt + 5).trim();
+        setPosition(start, moves);
+    }
+
+    /**
+     * Brings the board to {@code start} followed by {@code moves}, doing
+     * as little work as the previous position allows.
+     */
+    private void setPosition(String start, String moves) {
+        if (!start.equals(base)) {
+            try {
+                if (start.equals("startpos")) board.setupClassic();
+                else if (start.startsWith("fen ")) board.setFen(start.substring(4));
+                else throw new IllegalArgumentException("expected startpos or fen");
+            } catch (IllegalArgumentException e) {
+                out.println("info string bad position: " + e.getMessage());
+                base = "";
+                return;
+            }
+            base = start;
+            played = "";
+        }
+
+        // length of the longest common whole-move prefix of the old and new move text
+        int common = 0, commonMoves = 0;
+        for (int i = 0; ; i++) {
+            boolean oldEnd = i == played.length(), newEnd = i == moves.length();
+            if ((oldEnd || played.charAt(i) == ' ') && (newEnd || moves.charAt(i) == ' ')) {
+                if (i > 0 && moves.charAt(i - 1) != ' ') {
+                    common = i;
+                    commonMoves++;
+                }
+                if (oldEnd || newEnd) break;
+            } else if (oldEnd || newEnd || played.charAt(i) != moves.charAt(i)) {
+                break;
+            }
+        }
+
+        // take back what no longer matches, then play the new moves
+        while (board.getPly() > commonMoves) board.unmakeMove();
+        played = moves.substring(0, common);
+        int i = common;
+        while (i < moves.length()) {
+            while (i < moves.length() && moves.charAt(i) == ' ') i++;
+            int end = i;
+            while (end < moves.length() && moves.charAt(end) != ' ') end++;
+            if (end == i) break;
+            if (!playMove(moves, i, end)) {
+                out.println("info string illegal move " + moves.substring(i, end));
+                return;
+            }
+            played = moves.substring(0, end);
+            i = end;
+        }
+    }
+
+    /** Plays a coordinate move such as {@code e2e4} or {@code e7e8q} held in {@code text[from, to)}. */
+    private boolean playMove(String text, int from, int to) {
+        int len = to - from;
+        if (len != 4 && len != 5) return false;
+        int origin = square(text.charAt(from), text.charAt(from + 1));
+        int target = square(text.charAt(from + 2), text.charAt(from + 3));
+        int promo = len == 5 ? "nbrq".indexOf(text.charAt(from + 4)) + 1 : 0;
+        if (origin < 0 || target < 0 || promo < 0) return false;
+        int n = board.generateMoves(1L << target, moveBuffer);
+        for (int k = 0; k < n; k++) {
+            int m = moveBuffer[k];
+            if (Move.from(m) != origin) continue;
+            if (Move.isPromotion(m) ? Move.promotionType(m) != promo : promo != 0) continue;
+            return board.tryMakeMove(m);
+        }
+        return false;
+    }
+
+    /** @return square index for a file letter and rank digit, or -1 */
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return -1;
+        return ('8' - rank) * 8 + (file - 'a');
+    }
+
+    /** Handles {@code go ...} by starting a search on the background thread. */
+    private void go(String args) {
+        int depth = Search.MAX_PLY - 1;
+        long movetime = 0, nodes = 0, time = 0, inc = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean white = board.getSideToMove() == 0;
+        boolean infinite = false;
+        String[] tokens = args.isEmpty() ? new String[0] : args.split(" +");
+        try {
+            for (int i = 0; i < tokens.length; i++) {
+                String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+                switch (tokens[i]) {
+                    case "depth":     depth = Integer.parseInt(value); i++; break;
+                    case "movetime":  movetime = Long.parseLong(value); i++; break;
+                    case "nodes":     nodes = Long.parseLong(value); i++; break;
+                    case "wtime":     if (white) time = Long.parseLong(value); i++; break;
+                    case "btime":     if (!white) time = Long.parseLong(value); i++; break;
+                    case "winc":      if (white) inc = Long.parseLong(value); i++; break;
+                    case "binc":      if (!white) inc = Long.parseLong(value); i++; break;
+                    case "movestogo": movesToGo = Math.max(1, Integer.parseInt(value)); i++; break;
+                    case "infinite":
+                    case "ponder":    infinite = true; break;
+                    default:          break;
+                }
+            }
+        } catch (NumberFormatException e) {
+            out.println("info string bad go argument");
+            return;
+        }
+        // spend an even share of the clock plus most of the increment, keeping a margin
+        if (movetime == 0 && time > 0) movetime = Math.max(1, Math.min(time / movesToGo + inc * 3 / 4, time - 50));
+
+        int maxDepth = depth;
+        long millis = movetime, maxNodes = nodes;
+        Search engine = search;
+        CountDownLatch hold = infinite ? new CountDownLatch(1) : null;
+        bestMoveHold = hold;
+        running = searchThread.submit(() -> {
+            SearchResult result = engine.search(board, maxDepth, millis, maxNodes);
+            if (hold != null) {
+                try {
+                    hold.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            out.println("bestmove " + (result.move == Move.NONE ? "0000" : Move.toString(result.move)));
+        });
+    }
+
+    /** Prints a UCI {@code info} line for a completed iteration. */
+    private void info(SearchResult result) {
+        StringBuilder sb = new StringBuilder("info depth ").append(result.depth);
+        if (result.isMate()) sb.append(" score mate ").append(result.mateIn());
+        else sb.append(" score cp ").append(result.score);
+        sb.append(" nodes ").append(result.nodes).append(" nps ").append(result.nodesPerSecond())
+          .append(" time ").append(result.millis).append(" pv");
+        for (int m : result.getPv()) sb.append(' ').append(Move.toString(m));
+        out.println(sb);
+    }
+
+    /** Stops a running search and waits until it has printed its best move. */
+    private void stopSearch() {
+        if (running == null) return;
+        if (bestMoveHold != null) bestMoveHold.countDown();
+        try {
+            // repeat the request in case the search had not started and reset the flag
+            while (true) {
+                search.stop();
+                try {
+                    running.get(10, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // still running
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            out.println("info string search failed: " + e.getCause());
+        }
+        running = null;
+        bestMoveHold = null;
+    }
+
+    /**
+     * Runs the UCI loop on standard input and output.
+     *
+     * @param args unused
+     * @throws IOException if reading standard input fails
+     */
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        new UciFrontEnd(in, System.out).run();
+    }
+}